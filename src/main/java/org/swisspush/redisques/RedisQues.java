@@ -2,6 +2,7 @@ package org.swisspush.redisques;
 
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
@@ -10,15 +11,26 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
-import io.vertx.redis.RedisClient;
 import io.vertx.redis.RedisOptions;
 import io.vertx.redis.op.RangeLimitOptions;
+import io.vertx.redis.op.RangeOptions;
+import io.vertx.redis.op.ScanOptions;
 import org.swisspush.redisques.handler.*;
 import org.swisspush.redisques.lua.*;
+import org.swisspush.redisques.util.DefaultRedisquesMetrics;
+import org.swisspush.redisques.util.QueueConsumerCache;
+import org.swisspush.redisques.util.QueueSettings;
+import org.swisspush.redisques.util.RedisClientPool;
+import org.swisspush.redisques.util.RedisKeyLayout;
 import org.swisspush.redisques.util.RedisquesConfiguration;
+import org.swisspush.redisques.util.RedisquesMetrics;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static org.swisspush.redisques.util.RedisquesAPI.*;
 
@@ -37,37 +49,46 @@ public class RedisQues extends AbstractVerticle {
     // The queues this verticle is listening to
     private Map<String, QueueState> myQueues = new HashMap<>();
 
+    // The number of consecutive processing failures of my queues
+    private Map<String, Integer> queueFailures = new HashMap<>();
+
+    // Local cache of the consumers registered for queues
+    private QueueConsumerCache consumerCache;
+
     private Logger log = LoggerFactory.getLogger(RedisQues.class);
 
     private Handler<Void> stoppedHandler = null;
 
+    // Receives the metrics of this instance
+    private final RedisquesMetrics metrics;
+
     private MessageConsumer<String> conumersMessageConsumer;
 
+    private MessageConsumer<JsonObject> locksMessageConsumer;
+
     // Configuration
 
     // Address of this redisques. Also used as prefix for consumer broadcast
     // address.
     private String address = "redisques";
 
-    // Address of the redis mod
-    private RedisClient redisClient;
+    // Connections to redis, separated by traffic class: enqueueing and consuming, periodic housekeeping and
+    // admin operations. Large admin replies do not delay the consuming this way.
+    private RedisClientPool redisPool;
+    private RedisClientPool housekeepingRedisPool;
+    private RedisClientPool adminRedisPool;
 
     // Prefix for redis keys holding queues and consumers.
     private String redisPrefix = "redisques:";
 
-    // Prefix for queues
-    private String queuesPrefix = redisPrefix + "queues:";
+    // The redis keys of the queues, consumers and their bookkeeping, optionally sharded for redis cluster
+    private RedisKeyLayout keys;
 
-    // Prefix for consumers
-    private String consumersPrefix = "consumers:";
-
-    private String redisques_locks = "redisques:locks";
+    // local copy of the locked queues, updated by the lock change notifications of all instances
+    private Set<String> lockedQueues = new HashSet<>();
 
     private String queue_check_lastexec = redisPrefix + "check:lastexec";
 
-    // Address of message processors
-    private String processorAddress = "redisques-processor";
-
     public static final String TIMESTAMP = "timestamp";
 
     // Consumers periodically refresh their subscription while they are
@@ -76,13 +97,54 @@ public class RedisQues extends AbstractVerticle {
 
     private int checkInterval;
 
-    // the time we wait for the processor to answer, before we cancel processing
-    private int processorTimeout = 240000;
+    // the max number of queues handled at once by checkQueues
+    private int checkQueuesPageSize;
+
+    // the number of failed processing attempts after which the head item is moved to the dead letter queue, 0 never moves
+    private int maxAttempts;
+
+    // the number of priority lanes of each queue, served before the default lane
+    private int priorityLevels;
+
+    // whether the items in flight are kept in the processing hash of this instance until the processor replies
+    private boolean reliableMode;
+
+    // the interval [ms] in which due delayed items are moved when no local timer fires for them
+    private int delayedPollInterval;
+
+    // the earliest due time of a delayed item known locally and the timer moving it, -1 when no timer is set
+    private long nextDelayedMoveAt = -1;
+    private long nextDelayedMoveTimerId = -1;
+
+    // the interval [ms] in which dirty queue timestamps are flushed, 0 writes them through
+    private int timestampFlushInterval;
+
+    // queue timestamps not yet written to redis
+    private Map<String, Double> dirtyTimestamps = new HashMap<>();
+
+    // the processor address, the time we wait for the processor to answer, before we cancel processing, and the
+    // delays between retries of failed processings, resolved per queue
+    private QueueSettings queueSettings;
+
+    // the max number of items delivered to the processor in one batch for queues matching the prefetch pattern
+    private int prefetchCount = 1;
+
+    private Pattern prefetchQueuesPattern;
 
     private static final int DEFAULT_MAX_QUEUEITEM_COUNT = 49;
     private static final int MAX_AGE_MILLISECONDS = 120000; // 120 seconds
+    private static final int RESET_CONSUMERS_BATCH_SIZE = 1000;
+
+    // the max number of queues refreshed by a single lua script call
+    private static final int REFRESH_REGISTRATIONS_CHUNK_SIZE = 1000;
+
+    // the max number of due delayed items moved by a single lua script call and the lease held while moving
+    private static final int MOVE_DELAYED_BATCH_SIZE = 1000;
+    private static final long MOVE_DELAYED_LEASE_MS = 10000;
 
     private LuaScriptManager luaScriptManager;
+    private LuaScriptManager housekeepingLuaScriptManager;
+    private LuaScriptManager adminLuaScriptManager;
 
     // Handler receiving registration requests when no consumer is registered
     // for a queue.
@@ -91,7 +153,7 @@ public class RedisQues extends AbstractVerticle {
         final String queue = event.body();
         log.debug("RedisQues Got registration request for queue " + queue + " from consumer: " + uid);
         // Try to register for this queue
-        redisClient.setnx(redisPrefix + consumersPrefix + queue, uid, event1 -> {
+        redisPool.get(queue).setnx(keys.consumerKey(queue), uid, event1 -> {
             long value = event1.result();
             if (log.isTraceEnabled()) {
                 log.trace("RedisQues setxn result: " + value + " for queue: " + queue);
@@ -100,6 +162,7 @@ public class RedisQues extends AbstractVerticle {
                 // I am now the registered consumer for this queue.
                 log.debug("RedisQues Now registered for queue " + queue);
                 myQueues.put(queue, QueueState.READY);
+                consumerCache.put(queue, uid);
                 consume(queue);
             } else {
                 log.debug("RedisQues Missed registration for queue " + queue);
@@ -109,6 +172,17 @@ public class RedisQues extends AbstractVerticle {
         });
     };
 
+    public RedisQues() {
+        this(new DefaultRedisquesMetrics());
+    }
+
+    /**
+     * @param metrics the metrics implementation receiving the metrics of this instance
+     */
+    public RedisQues(RedisquesMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public void start() {
         final EventBus eb = vertx.eventBus();
@@ -119,17 +193,39 @@ public class RedisQues extends AbstractVerticle {
 
         address = modConfig.getAddress();
         redisPrefix = modConfig.getRedisPrefix();
-        processorAddress = modConfig.getProcessorAddress();
+        keys = new RedisKeyLayout(redisPrefix, modConfig.getClusterShards());
         refreshPeriod = modConfig.getRefreshPeriod();
         checkInterval = modConfig.getCheckInterval();
-        processorTimeout = modConfig.getProcessorTimeout();
+        checkQueuesPageSize = modConfig.getCheckQueuesPageSize();
+        timestampFlushInterval = modConfig.getTimestampFlushInterval();
+        maxAttempts = modConfig.getMaxAttempts();
+        delayedPollInterval = modConfig.getDelayedPollInterval();
+        priorityLevels = modConfig.getPriorityLevels();
+        reliableMode = modConfig.isReliableMode();
+        queueSettings = new QueueSettings(modConfig);
+        prefetchCount = modConfig.getPrefetchCount();
+        if (modConfig.getPrefetchQueuesPattern() != null) {
+            prefetchQueuesPattern = Pattern.compile(modConfig.getPrefetchQueuesPattern());
+        }
 
-        this.redisClient = RedisClient.create(vertx, new RedisOptions()
+        RedisOptions redisOptions = new RedisOptions()
                 .setHost(modConfig.getRedisHost())
                 .setPort(modConfig.getRedisPort())
-                .setEncoding(modConfig.getRedisEncoding()));
+                .setEncoding(modConfig.getRedisEncoding());
+        this.redisPool = new RedisClientPool(vertx, redisOptions, modConfig.getRedisPoolSize());
+        this.housekeepingRedisPool = new RedisClientPool(vertx, redisOptions, modConfig.getRedisHousekeepingPoolSize());
+        this.adminRedisPool = new RedisClientPool(vertx, redisOptions, modConfig.getRedisAdminPoolSize());
+
+        this.luaScriptManager = new LuaScriptManager(redisPool);
+        this.housekeepingLuaScriptManager = new LuaScriptManager(housekeepingRedisPool);
+        this.adminLuaScriptManager = new LuaScriptManager(adminRedisPool);
+
+        this.consumerCache = new QueueConsumerCache(modConfig.getConsumerCacheSize(), modConfig.getConsumerCacheTtl() * 1000L);
 
-        this.luaScriptManager = new LuaScriptManager(redisClient);
+        metrics.registerGauge("myQueues", () -> myQueues.size());
+        registerPoolGauges("hot", redisPool);
+        registerPoolGauges("housekeeping", housekeepingRedisPool);
+        registerPoolGauges("admin", adminRedisPool);
 
         // Handles operations
         eb.localConsumer(address, new Handler<Message<JsonObject>>() {
@@ -147,12 +243,29 @@ public class RedisQues extends AbstractVerticle {
 
                 switch (queueOperation) {
                     case enqueue:
+                        String queueEnqueue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        String keyEnqueue = keys.queueKey(queueEnqueue);
+                        Integer priority = event.body().getJsonObject(PAYLOAD).getInteger(PRIORITY);
+                        if (priority != null) {
+                            if (priorityLevels == 0) {
+                                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + PRIORITY
+                                        + "' is not supported, the priority lanes are disabled"));
+                                break;
+                            }
+                            if (priority < 0 || priority >= priorityLevels) {
+                                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + PRIORITY
+                                        + "' must be between 0 and " + (priorityLevels - 1) + ", but was " + priority));
+                                break;
+                            }
+                            keyEnqueue = keys.laneKey(queueEnqueue, priority);
+                        }
                         updateTimestamp(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), null);
-                        String keyEnqueue = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
                         String valueEnqueue = event.body().getString(MESSAGE);
-                        redisClient.rpush(keyEnqueue, valueEnqueue, event2 -> {
+                        // pinned to the connection of the queue, so that the messages keep their order
+                        redisPool.get(queueEnqueue).rpush(keyEnqueue, valueEnqueue, timed("rpush", event2 -> {
                             JsonObject reply = new JsonObject();
                             if(event2.succeeded()){
+                                metrics.enqueued(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), 1);
                                 log.debug("RedisQues Enqueued message into queue " + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME));
                                 notifyConsumer(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME));
                                 reply.put(STATUS, OK);
@@ -165,13 +278,19 @@ public class RedisQues extends AbstractVerticle {
                                 reply.put(MESSAGE, message);
                                 event.reply(reply);
                             }
-                        });
+                        }));
+                        break;
+                    case bulkEnqueue:
+                        bulkEnqueue(event);
+                        break;
+                    case enqueueDelayed:
+                        enqueueDelayed(event);
                         break;
                     case check:
-                        checkQueues();
+                        checkQueues(done -> event.reply(new JsonObject().put(STATUS, OK)));
                         break;
                     case reset:
-                        resetConsumers();
+                        resetConsumers(event);
                         break;
                     case stop:
                         gracefulStop(event1 -> {
@@ -180,67 +299,110 @@ public class RedisQues extends AbstractVerticle {
                         });
                         break;
                     case getQueueItems:
-                        String keyListRange = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
-                        int maxQueueItemCountIndex = getMaxQueueItemCountIndex(event.body().getJsonObject(PAYLOAD).getString(LIMIT));
-                        redisClient.llen(keyListRange, countReply -> redisClient.lrange(keyListRange, 0, maxQueueItemCountIndex, new GetQueueItemsHandler(event, countReply.result())));
+                        List<String> keysListRange = laneKeys(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME));
+                        int queueItemsOffset = getQueueItemsOffset(event.body().getJsonObject(PAYLOAD).getInteger(OFFSET));
+                        int maxQueueItemCountIndex = queueItemsOffset + getMaxQueueItemCountIndex(event.body().getJsonObject(PAYLOAD).getValue(LIMIT));
+                        adminLuaScriptManager.handleGetQueueItems(keysListRange, queueItemsOffset, maxQueueItemCountIndex, new GetQueueItemsHandler(event));
                         break;
                     case addQueueItem:
-                        String key1 = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        String key1 = keys.queueKey(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME));
                         String valueAddItem = event.body().getJsonObject(PAYLOAD).getString(BUFFER);
-                        redisClient.rpush(key1, valueAddItem, new AddQueueItemHandler(event));
+                        adminRedisPool.get(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME)).rpush(key1, valueAddItem, new AddQueueItemHandler(event));
                         break;
                     case deleteQueueItem:
-                        String keyLset = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
-                        int indexLset = event.body().getJsonObject(PAYLOAD).getInteger(INDEX);
-                        redisClient.lset(keyLset, indexLset, "TO_DELETE", event1 -> {
-                            if(event1.succeeded()){
-                                String keyLrem = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
-                                redisClient.lrem(keyLrem, 0, "TO_DELETE", replyLrem -> event.reply(new JsonObject().put(STATUS, OK)));
-                            } else {
-                                event.reply(new JsonObject().put(STATUS, ERROR));
-                            }
-                        });
+                        deleteQueueItems(event);
                         break;
                     case getQueueItem:
-                        String key = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        String queueGetItem = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
                         int index = event.body().getJsonObject(PAYLOAD).getInteger(INDEX);
-                        redisClient.lindex(key, index, new GetQueueItemHandler(event));
+                        if (priorityLevels == 0) {
+                            adminRedisPool.get().lindex(keys.queueKey(queueGetItem), index, new GetQueueItemHandler(event));
+                        } else {
+                            queueItem(queueGetItem, index, null, new GetQueueItemHandler(event));
+                        }
                         break;
                     case replaceQueueItem:
-                        String keyReplaceItem = queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        String queueReplaceItem = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
                         int indexReplaceItem = event.body().getJsonObject(PAYLOAD).getInteger(INDEX);
                         String bufferReplaceItem = event.body().getJsonObject(PAYLOAD).getString(BUFFER);
-                        redisClient.lset(keyReplaceItem, indexReplaceItem, bufferReplaceItem, new ReplaceQueueItemHandler(event));
+                        if (priorityLevels == 0) {
+                            adminRedisPool.get().lset(keys.queueKey(queueReplaceItem), indexReplaceItem, bufferReplaceItem, new ReplaceQueueItemHandler(event));
+                        } else {
+                            queueItem(queueReplaceItem, indexReplaceItem, bufferReplaceItem, new ReplaceQueueItemHandler(event));
+                        }
                         break;
                     case deleteAllQueueItems:
-                        redisClient.del(queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), new DeleteAllQueueItems(event));
+                        adminRedisPool.get().delMany(laneKeys(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME)), new DeleteAllQueueItems(event));
                         break;
                     case getAllLocks:
-                        redisClient.hkeys(redisques_locks, new GetAllLocksHandler(event));
+                        getAllLocks(event);
                         break;
                     case putLock:
                         JsonObject lockInfo = extractLockInfo(event.body().getJsonObject(PAYLOAD).getString(REQUESTED_BY));
                         if (lockInfo != null) {
-                            redisClient.hmset(redisques_locks, new JsonObject().put(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), lockInfo.encode()),
-                                    new PutLockHandler(event));
+                            String lockedQueue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                            adminRedisPool.get().hmset(keys.locksKey(lockedQueue), new JsonObject().put(lockedQueue, lockInfo.encode()), putLockResult -> {
+                                if (putLockResult.succeeded()) {
+                                    publishLockChange(lockedQueue, true);
+                                }
+                                new PutLockHandler(event).handle(putLockResult);
+                            });
                         } else {
                             event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + REQUESTED_BY + "' missing"));
                         }
                         break;
                     case getLock:
-                        redisClient.hget(redisques_locks, event.body().getJsonObject(PAYLOAD).getString(QUEUENAME),new GetLockHandler(event));
+                        String lockQueue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        adminRedisPool.get().hget(keys.locksKey(lockQueue), lockQueue, new GetLockHandler(event));
                         break;
                     case deleteLock:
-                        redisClient.hdel(redisques_locks, event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), new DeleteLockHandler(event));
+                        String unlockedQueue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        adminRedisPool.get().hdel(keys.locksKey(unlockedQueue), unlockedQueue, deleteLockResult -> {
+                            if (deleteLockResult.succeeded()) {
+                                publishLockChange(unlockedQueue, false);
+                                // the queue may have no consumer registered while it was locked
+                                notifyConsumer(unlockedQueue);
+                            }
+                            new DeleteLockHandler(event).handle(deleteLockResult);
+                        });
                         break;
                     case getQueueItemsCount:
-                        redisClient.llen(queuesPrefix + event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), new GetQueueItemsCountHandler(event));
+                        getQueueLength(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME), new GetQueueItemsCountHandler(event));
                         break;
                     case getQueuesCount:
-                        redisClient.zcount(redisPrefix + "queues", getMaxAgeTimestamp(), Double.MAX_VALUE, new GetQueuesCountHandler(event));
+                        getQueuesCount(event);
                         break;
                     case getQueues:
-                        redisClient.zrangebyscore(redisPrefix + "queues", String.valueOf(getMaxAgeTimestamp()), "+inf", RangeLimitOptions.NONE, new GetQueuesHandler(event));
+                        getQueues(event);
+                        break;
+                    case getQueuesStatistics:
+                        getQueuesStatistics(event);
+                        break;
+                    case getDeadLetterQueues:
+                        getDeadLetterQueues(event);
+                        break;
+                    case getDeadLetterQueueItems:
+                        String keyDeadLetterQueue = keys.deadLetterQueueKey(event.body().getJsonObject(PAYLOAD).getString(QUEUENAME));
+                        int deadLetterOffset = getQueueItemsOffset(event.body().getJsonObject(PAYLOAD).getInteger(OFFSET));
+                        int deadLetterMaxIndex = deadLetterOffset + getMaxQueueItemCountIndex(event.body().getJsonObject(PAYLOAD).getValue(LIMIT));
+                        adminLuaScriptManager.handleGetQueueItems(Collections.singletonList(keyDeadLetterQueue), deadLetterOffset, deadLetterMaxIndex, new GetQueueItemsHandler(event));
+                        break;
+                    case replayDeadLetterQueue:
+                        replayDeadLetterQueue(event);
+                        break;
+                    case deleteDeadLetterQueue:
+                        String deadLetterQueue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+                        adminRedisPool.get().del(keys.deadLetterQueueKey(deadLetterQueue), delReply ->
+                                adminRedisPool.get().srem(keys.deadLetterQueuesKey(keys.shardOf(deadLetterQueue)), deadLetterQueue, sremReply -> {
+                                    if (delReply.succeeded() && sremReply.succeeded()) {
+                                        event.reply(new JsonObject().put(STATUS, OK));
+                                    } else {
+                                        event.reply(new JsonObject().put(STATUS, ERROR));
+                                    }
+                                }));
+                        break;
+                    case getMetrics:
+                        event.reply(new JsonObject().put(STATUS, OK).put(VALUE, metrics.toJsonObject()));
                         break;
                     default:
                         unsupportedOperation(operation, event);
@@ -260,48 +422,575 @@ public class RedisQues extends AbstractVerticle {
             }
         });
 
+        if (reliableMode) {
+            // Keep my in-flight items from being recovered as long as I am alive
+            refreshLiveness();
+            vertx.setPeriodic(refreshPeriod * 1000, event -> refreshLiveness());
+        }
+
+        // Handles lock changes of all instances
+        locksMessageConsumer = eb.consumer(address + "-locks", (Handler<Message<JsonObject>>) event ->
+                lockChanged(event.body().getString(QUEUENAME), event.body().getBoolean(LOCKED)));
+
         // Periodic refresh of my registrations on active queues.
-        vertx.setPeriodic(refreshPeriod * 1000, event -> {
-            // Check if I am still the registered consumer
-            myQueues.entrySet().stream().filter(entry -> entry.getValue() == QueueState.CONSUMING).forEach(entry -> {
-                final String queue = entry.getKey();
-                // Check if I am still the registered consumer
-                String consumerKey = redisPrefix + consumersPrefix + queue;
-                if (log.isTraceEnabled()) {
-                    log.trace("RedisQues refresh queues get: " + consumerKey);
+        vertx.setPeriodic(refreshPeriod * 1000, event -> refreshRegistrations());
+
+        // Periodic reload of the locked queues, catches up with lock changes missed or made directly in redis
+        vertx.setPeriodic(refreshPeriod * 1000, event -> loadLocks());
+        loadLocks();
+
+        registerQueueCheck(modConfig);
+
+        // Fallback for delayed items without a local timer, e.g. enqueued before a restart or on another instance
+        vertx.setPeriodic(delayedPollInterval, event -> pollDelayed());
+        moveDelayed();
+
+        if (timestampFlushInterval > 0) {
+            vertx.setPeriodic(timestampFlushInterval, event -> flushTimestamps(null));
+        }
+    }
+
+    /**
+     * Checks if I am still the registered consumer of my active queues. The registrations and timestamps of the
+     * queues still owned are refreshed, the others are removed from my queues. The queues are handled in chunks per
+     * shard, each chunk with a single lua script call.
+     */
+    private void refreshRegistrations() {
+        Map<Integer, List<String>> queuesByShard = myQueues.entrySet().stream()
+                .filter(entry -> entry.getValue() == QueueState.CONSUMING)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.groupingBy(keys::shardOf));
+        queuesByShard.forEach(this::refreshRegistrations);
+    }
+
+    private void refreshRegistrations(final int shard, final List<String> queues) {
+        for (int i = 0; i < queues.size(); i += REFRESH_REGISTRATIONS_CHUNK_SIZE) {
+            final List<String> chunk = queues.subList(i, Math.min(i + REFRESH_REGISTRATIONS_CHUNK_SIZE, queues.size()));
+            if (log.isTraceEnabled()) {
+                log.trace("RedisQues refresh registrations of queues: " + chunk);
+            }
+            housekeepingLuaScriptManager.handleRefreshRegistrations(keys.queuesKey(shard), keys.consumersPrefix(shard), uid,
+                    2 * refreshPeriod, System.currentTimeMillis(), chunk, timed("refreshRegistrations", event -> {
+                if (event.failed()) {
+                    log.error("RedisQues Unable to refresh registrations: " + event.cause().getMessage());
+                    return;
                 }
-                redisClient.get(consumerKey, event1 -> {
-                    String consumer = event1.result();
-                    if (uid.equals(consumer)) {
-                        log.debug("RedisQues Periodic consumer refresh for active queue " + queue);
-                        refreshRegistration(queue, null);
-                        updateTimestamp(queue, null);
-                    } else {
+                Set<String> notOwnedQueues = new HashSet<>(asStrings(event.result()));
+                for (String queue : chunk) {
+                    if (notOwnedQueues.contains(queue)) {
                         log.debug("RedisQues Removing queue " + queue + " from the list");
                         myQueues.remove(queue);
+                        queueFailures.remove(queue);
+                        consumerCache.invalidate(queue);
+                    } else {
+                        log.debug("RedisQues Periodic consumer refresh for active queue " + queue);
+                        consumerCache.put(queue, uid);
                     }
-                });
-            });
+                }
+            }));
+        }
+    }
+
+    /**
+     * Informs all instances about a lock change, so that they update their local copy of the locked queues. The local
+     * copy of this instance is updated right away. An unlocked queue is not resumed here, the caller notifies its
+     * consumer once, which also covers queues without a registered consumer.
+     */
+    private void publishLockChange(final String queue, final boolean locked) {
+        if (locked) {
+            lockedQueues.add(queue);
+        } else {
+            lockedQueues.remove(queue);
+        }
+        vertx.eventBus().publish(address + "-locks", new JsonObject().put(QUEUENAME, queue).put(LOCKED, locked));
+    }
+
+    private void lockChanged(final String queue, final boolean locked) {
+        if (locked) {
+            lockedQueues.add(queue);
+        } else if (lockedQueues.remove(queue) && myQueues.containsKey(queue)) {
+            log.debug("RedisQues Queue " + queue + " was unlocked, resume consuming");
+            consume(queue);
+        }
+    }
+
+    /**
+     * Reloads the locked queues from redis. Lock changes arriving while the locks are loaded are newer than the loaded
+     * locks, so only the queues locked when the reload started are resumed when their lock is gone, and queues
+     * unlocked in the meantime are not locked again.
+     */
+    private void loadLocks() {
+        final Set<String> lockedAtStart = new HashSet<>(lockedQueues);
+        this.<JsonArray>forEachShard((shard, handler) -> housekeepingRedisPool.get().hkeys(keys.locksKey(shard), timed("hkeys", handler)), event -> {
+            if (event.failed()) {
+                log.error("RedisQues Unable to load the locked queues: " + event.cause().getMessage());
+                return;
+            }
+            Set<String> locks = new HashSet<>(asStrings(concat(event).result()));
+            for (String queue : lockedAtStart) {
+                if (!locks.contains(queue) && lockedQueues.contains(queue)) {
+                    lockChanged(queue, false);
+                }
+            }
+            for (String queue : locks) {
+                if (!lockedAtStart.contains(queue)) {
+                    lockedQueues.add(queue);
+                }
+            }
         });
+    }
 
-        registerQueueCheck(modConfig);
+    private String processingKey(final String queue) {
+        return keys.processingKey(keys.shardOf(queue), uid);
+    }
+
+    /**
+     * Refreshes the liveness key of this instance and registers it among the consumers with items in flight again,
+     * in case the recovery removed it while this instance was stalled.
+     */
+    private void refreshLiveness() {
+        for (int shard = 0; shard < keys.getShards(); shard++) {
+            final String processingConsumersKey = keys.processingConsumersKey(shard);
+            housekeepingRedisPool.get().setex(keys.alivePrefix(shard) + uid, 2 * refreshPeriod, "1", event -> {
+                if (event.failed()) {
+                    log.error("RedisQues Unable to refresh the liveness of consumer " + uid + ": " + event.cause().getMessage());
+                    return;
+                }
+                // registered after the liveness key, so that the recovery never sees me registered but dead
+                housekeepingRedisPool.get().sadd(processingConsumersKey, uid, sadd -> {});
+            });
+        }
+    }
+
+    /**
+     * Returns the in-flight items of dead consumers to their queues and notifies the consumers of these queues.
+     */
+    private void recoverProcessing() {
+        for (int shard = 0; shard < keys.getShards(); shard++) {
+            recoverProcessing(shard);
+        }
+    }
+
+    private void recoverProcessing(final int shard) {
+        housekeepingLuaScriptManager.handleRecoverProcessing(keys.processingConsumersKey(shard), keys.queuesKey(shard), keys.inflightKey(shard),
+                keys.processingPrefix(shard), keys.alivePrefix(shard), System.currentTimeMillis(),
+                timed("recoverProcessing", event -> {
+            if (event.failed()) {
+                log.error("RedisQues Unable to recover in-flight items of dead consumers: " + event.cause().getMessage());
+                return;
+            }
+            for (Object queue : event.result()) {
+                log.warn("RedisQues Recovered in-flight items of a dead consumer into queue " + queue);
+                notifyConsumer((String) queue);
+            }
+        }));
+    }
+
+    private void registerPoolGauges(String trafficClass, RedisClientPool pool) {
+        metrics.registerGauge("redisPool." + trafficClass + ".connections", pool::size);
     }
 
     private void registerQueueCheck(RedisquesConfiguration modConfig) {
         vertx.setPeriodic(modConfig.getCheckIntervalTimerMs(), periodicEvent -> {
-            luaScriptManager.handleQueueCheck(queue_check_lastexec, checkInterval, shouldCheck -> {
+            housekeepingLuaScriptManager.handleQueueCheck(queue_check_lastexec, checkInterval, shouldCheck -> {
                 if (shouldCheck) {
                     log.info("periodic queue check is triggered now");
-                    checkQueues();
+                    checkQueues(null);
+                    if (reliableMode) {
+                        recoverProcessing();
+                    }
                 }
             });
         });
     }
 
+    /**
+     * Stores a message in the delayed sorted set scored by its due time. The message is moved to its queue once due,
+     * either by the local timer set for the due time or by the periodic poll of any instance.
+     *
+     * @param event the enqueueDelayed operation
+     */
+    private void enqueueDelayed(final Message<JsonObject> event) {
+        final String queue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+        Long delay = event.body().getJsonObject(PAYLOAD).getLong(DELAY);
+        if (delay == null || delay < 0) {
+            event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + DELAY + "' missing or negative"));
+            return;
+        }
+        final long dueTime = System.currentTimeMillis() + delay;
+        // the random id keeps equal messages with equal due times apart in the sorted set
+        String member = new JsonObject()
+                .put("queue", queue)
+                .put(MESSAGE, event.body().getString(MESSAGE))
+                .put("id", UUID.randomUUID().toString())
+                .encode();
+        redisPool.get().zadd(keys.delayedKey(keys.shardOf(queue)), dueTime, member, timed("zadd", result -> {
+            if (result.failed()) {
+                String message = "RedisQues QUEUE_ERROR: Error while enqueueing delayed message into queue " + queue;
+                log.error(message);
+                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, message));
+                return;
+            }
+            log.debug("RedisQues Enqueued delayed message into queue " + queue + " due at " + dueTime);
+            scheduleDelayedMove(dueTime);
+            event.reply(new JsonObject().put(STATUS, OK).put(MESSAGE, "enqueued"));
+        }));
+    }
+
+    /**
+     * Sets the timer moving due delayed items to the given due time, unless a timer for an earlier due time is set.
+     */
+    private void scheduleDelayedMove(final long dueTime) {
+        if (nextDelayedMoveTimerId != -1) {
+            if (nextDelayedMoveAt <= dueTime) {
+                return;
+            }
+            vertx.cancelTimer(nextDelayedMoveTimerId);
+        }
+        nextDelayedMoveAt = dueTime;
+        nextDelayedMoveTimerId = vertx.setTimer(Math.max(1, dueTime - System.currentTimeMillis()), timerId -> {
+            nextDelayedMoveTimerId = -1;
+            nextDelayedMoveAt = -1;
+            moveDelayed();
+        });
+    }
+
+    /**
+     * Reads the head of the delayed sorted set of each shard. Due items are moved, otherwise the timer is set to the due
+     * time of the head. The poll only reads, so it costs a ZRANGE per shard while no delayed items are waiting.
+     */
+    private void pollDelayed() {
+        for (int shard = 0; shard < keys.getShards(); shard++) {
+            final int polledShard = shard;
+            housekeepingRedisPool.get().zrangeWithOptions(keys.delayedKey(shard), 0, 0, RangeOptions.WITHSCORES, timed("zrange", head -> {
+                if (head.failed()) {
+                    log.error("RedisQues Unable to poll delayed messages: " + head.cause().getMessage());
+                    return;
+                }
+                if (head.result().size() < 2) {
+                    return;
+                }
+                long dueTime = (long) Double.parseDouble(head.result().getString(1));
+                if (dueTime <= System.currentTimeMillis()) {
+                    moveDelayed(polledShard);
+                } else {
+                    scheduleDelayedMove(dueTime);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Moves the due delayed items to their queues in batches and notifies the consumers of these queues. When this
+     * instance holds the mover lease of a shard, the timer is set to the due time of the next delayed item of the shard.
+     */
+    private void moveDelayed() {
+        for (int shard = 0; shard < keys.getShards(); shard++) {
+            moveDelayed(shard);
+        }
+    }
+
+    private void moveDelayed(final int shard) {
+        housekeepingLuaScriptManager.handleMoveDelayed(keys.delayedKey(shard), keys.delayedLeaseKey(shard), keys.queuesKey(shard),
+                keys.queuesPrefix(shard), uid, MOVE_DELAYED_LEASE_MS, System.currentTimeMillis(), MOVE_DELAYED_BATCH_SIZE,
+                timed("moveDelayed", event -> {
+            if (event.failed()) {
+                log.error("RedisQues Unable to move delayed messages: " + event.cause().getMessage());
+                return;
+            }
+            JsonArray result = event.result();
+            for (int i = 3; i + 1 < result.size(); i += 2) {
+                String queue = result.getString(i);
+                metrics.enqueued(queue, result.getLong(i + 1).intValue());
+                log.debug("RedisQues Moved due delayed messages into queue " + queue);
+                notifyConsumer(queue);
+            }
+            if (result.getLong(0) != 1L) {
+                // another instance is moving, the periodic poll catches up with anything it leaves
+                return;
+            }
+            if (result.getLong(1) == MOVE_DELAYED_BATCH_SIZE) {
+                moveDelayed(shard);
+                return;
+            }
+            long nextDueTime = result.getLong(2);
+            if (nextDueTime >= 0) {
+                scheduleDelayedMove(nextDueTime);
+            }
+        }));
+    }
+
+    /**
+     * Enqueues a batch of messages for one or many queues. The messages of each queue are pushed with a single
+     * variadic RPUSH, the timestamps of all queues are updated with a single ZADD and each consumer is notified once.
+     *
+     * @param event the bulkEnqueue operation
+     */
+    private void bulkEnqueue(final Message<JsonObject> event) {
+        JsonArray messages = event.body().getJsonObject(PAYLOAD).getJsonArray(MESSAGES);
+        if (messages == null || messages.isEmpty()) {
+            event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + MESSAGES + "' missing or empty"));
+            return;
+        }
+        final Map<String, List<String>> queueMessages = new LinkedHashMap<>();
+        for (Object entry : messages) {
+            if (!(entry instanceof JsonObject) || ((JsonObject) entry).getString(QUEUENAME) == null || ((JsonObject) entry).getString(MESSAGE) == null) {
+                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Every entry of '" + MESSAGES + "' requires the properties '" + QUEUENAME + "' and '" + MESSAGE + "'"));
+                return;
+            }
+            JsonObject message = (JsonObject) entry;
+            queueMessages.computeIfAbsent(message.getString(QUEUENAME), queue -> new ArrayList<>()).add(message.getString(MESSAGE));
+        }
+
+        updateTimestamps(queueMessages.keySet(), null);
+
+        final AtomicInteger counter = new AtomicInteger(queueMessages.size());
+        final List<String> failedQueues = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : queueMessages.entrySet()) {
+            final String queue = entry.getKey();
+            redisPool.get(queue).rpushMany(keys.queueKey(queue), entry.getValue(), timed("rpush", pushResult -> {
+                if (pushResult.succeeded()) {
+                    log.debug("RedisQues Enqueued " + entry.getValue().size() + " messages into queue " + queue);
+                    metrics.enqueued(queue, entry.getValue().size());
+                    notifyConsumer(queue);
+                } else {
+                    log.error("RedisQues QUEUE_ERROR: Error while enqueueing messages into queue " + queue);
+                    failedQueues.add(queue);
+                }
+                if (counter.decrementAndGet() == 0) {
+                    JsonObject reply = new JsonObject();
+                    if (failedQueues.isEmpty()) {
+                        reply.put(STATUS, OK);
+                        reply.put(MESSAGE, "enqueued");
+                        reply.put(VALUE, messages.size());
+                    } else {
+                        reply.put(STATUS, ERROR);
+                        reply.put(MESSAGE, "RedisQues QUEUE_ERROR: Error while enqueueing messages into queues " + failedQueues);
+                    }
+                    event.reply(reply);
+                }
+            }));
+        }
+    }
+
     private long getMaxAgeTimestamp(){
         return System.currentTimeMillis() - MAX_AGE_MILLISECONDS;
     }
 
+    private void getAllLocks(final Message<JsonObject> event) {
+        this.<JsonArray>forEachShard((shard, handler) -> adminRedisPool.get().hkeys(keys.locksKey(shard), handler),
+                locks -> new GetAllLocksHandler(event).handle(concat(locks)));
+    }
+
+    private void getDeadLetterQueues(final Message<JsonObject> event) {
+        this.<JsonArray>forEachShard((shard, handler) -> adminRedisPool.get().smembers(keys.deadLetterQueuesKey(shard), handler),
+                deadLetterQueues -> new GetQueuesHandler(event).handle(concat(deadLetterQueues)));
+    }
+
+    private void getQueues(final Message<JsonObject> event) {
+        JsonObject payload = event.body().getJsonObject(PAYLOAD, new JsonObject());
+        int offset = Math.max(getPagingValue(payload, OFFSET, 0), 0);
+        int limit = getPagingValue(payload, LIMIT, -1);
+        getActiveQueues(payload.getString(PREFIX), offset, limit, new GetQueuesHandler(event));
+    }
+
+    /**
+     * Gets a page of the queues updated within the max age, optionally only the queues starting with a prefix. With
+     * several shards, the page is cut in shard order: the matching queues are counted per shard first, then each
+     * shard is only asked for its part of the page. The counts and the page share the same max age cutoff.
+     */
+    private void getActiveQueues(final String prefix, final int offset, final int limit, final Handler<AsyncResult<JsonArray>> handler) {
+        final long minScore = getMaxAgeTimestamp();
+        if (keys.getShards() == 1) {
+            getActiveQueues(0, prefix, minScore, offset, limit, handler);
+            return;
+        }
+        this.<Long>forEachShard((shard, shardHandler) -> getQueuesCount(shard, prefix, minScore, shardHandler), counts -> {
+            if (counts.failed()) {
+                handler.handle(Future.failedFuture(counts.cause()));
+                return;
+            }
+            // the offset and the number of queues to get of each shard overlapping the page
+            final Map<Integer, int[]> pageOfShards = new HashMap<>();
+            long skip = offset;
+            long remaining = limit < 0 ? Long.MAX_VALUE : limit;
+            for (int shard = 0; shard < counts.result().size() && remaining > 0; shard++) {
+                long count = counts.result().get(shard);
+                if (skip >= count) {
+                    skip -= count;
+                    continue;
+                }
+                long take = Math.min(count - skip, remaining);
+                pageOfShards.put(shard, new int[]{(int) skip, (int) take});
+                remaining -= take;
+                skip = 0;
+            }
+            this.<JsonArray>forEachShard((shard, shardHandler) -> {
+                int[] page = pageOfShards.get(shard);
+                if (page == null) {
+                    shardHandler.handle(Future.succeededFuture(new JsonArray()));
+                } else {
+                    getActiveQueues(shard, prefix, minScore, page[0], page[1], shardHandler);
+                }
+            }, queues -> handler.handle(concat(queues)));
+        });
+    }
+
+    private void getActiveQueues(final int shard, final String prefix, final long minScore, final int offset, final int limit,
+                                 final Handler<AsyncResult<JsonArray>> handler) {
+        if (prefix == null || prefix.isEmpty()) {
+            RangeLimitOptions limitOptions = RangeLimitOptions.NONE;
+            if (offset > 0 || limit >= 0) {
+                limitOptions = new RangeLimitOptions();
+                limitOptions.setLimit(offset, limit);
+            }
+            adminRedisPool.get().zrangebyscore(keys.queuesKey(shard), String.valueOf(minScore), "+inf", limitOptions, handler);
+        } else {
+            adminLuaScriptManager.handleGetQueues(keys.queuesKey(shard), minScore, prefix, offset, limit, false, handler);
+        }
+    }
+
+    private void getQueuesCount(final Message<JsonObject> event) {
+        String prefix = event.body().getJsonObject(PAYLOAD, new JsonObject()).getString(PREFIX);
+        GetQueuesCountHandler handler = new GetQueuesCountHandler(event);
+        final long minScore = getMaxAgeTimestamp();
+        this.<Long>forEachShard((shard, shardHandler) -> getQueuesCount(shard, prefix, minScore, shardHandler), result -> {
+            if (result.succeeded()) {
+                handler.handle(Future.succeededFuture(result.result().stream().mapToLong(Long::longValue).sum()));
+            } else {
+                handler.handle(Future.failedFuture(result.cause()));
+            }
+        });
+    }
+
+    private void getQueuesCount(final int shard, final String prefix, final long minScore, final Handler<AsyncResult<Long>> handler) {
+        if (prefix == null || prefix.isEmpty()) {
+            adminRedisPool.get().zcount(keys.queuesKey(shard), minScore, Double.MAX_VALUE, handler);
+        } else {
+            adminLuaScriptManager.handleGetQueues(keys.queuesKey(shard), minScore, prefix, 0, -1, true, result -> {
+                if (result.succeeded()) {
+                    handler.handle(Future.succeededFuture(result.result().getLong(0)));
+                } else {
+                    handler.handle(Future.failedFuture(result.cause()));
+                }
+            });
+        }
+    }
+
+    private void getQueuesStatistics(final Message<JsonObject> event) {
+        JsonObject payload = event.body().getJsonObject(PAYLOAD, new JsonObject());
+        if (payload.containsKey(QUEUES)) {
+            getQueuesStatistics(event, asStrings(payload.getJsonArray(QUEUES)));
+            return;
+        }
+        // Without explicit queues, the statistics of a page of the active queues are gathered
+        int offset = Math.max(getPagingValue(payload, OFFSET, 0), 0);
+        int limit = getPagingValue(payload, LIMIT, -1);
+        getActiveQueues(null, offset, limit, queues -> {
+            if (queues.failed()) {
+                event.reply(new JsonObject().put(STATUS, ERROR));
+            } else {
+                getQueuesStatistics(event, asStrings(queues.result()));
+            }
+        });
+    }
+
+    private static List<String> asStrings(JsonArray array) {
+        return array.stream().map(String.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Gathers the statistics of the queues with a lua script call per shard and replies them in the order of the
+     * requested queues.
+     */
+    private void getQueuesStatistics(final Message<JsonObject> event, final List<String> queues) {
+        if (queues.isEmpty()) {
+            event.reply(new JsonObject().put(STATUS, OK).put(VALUE, new JsonObject().put(QUEUES, new JsonArray())));
+            return;
+        }
+        Map<Integer, List<String>> queuesByShard = queues.stream().distinct().collect(Collectors.groupingBy(keys::shardOf));
+        this.<JsonArray>forEachShard((shard, handler) -> {
+            List<String> shardQueues = queuesByShard.get(shard);
+            if (shardQueues == null) {
+                handler.handle(Future.succeededFuture(new JsonArray()));
+                return;
+            }
+            adminLuaScriptManager.handleGetQueuesStatistics(keys.queuesKey(shard), keys.locksKey(shard), keys.inflightKey(shard), keys.queuesPrefix(shard),
+                    keys.consumersPrefix(shard), priorityLevels, keys.lanesPrefix(shard), shardQueues, handler);
+        }, result -> {
+            if (result.failed()) {
+                event.reply(new JsonObject().put(STATUS, ERROR));
+                return;
+            }
+            JsonArray values = concat(result).result();
+            Map<String, JsonObject> statisticsByQueue = new HashMap<>();
+            for (int i = 0; i + 4 < values.size(); i += 5) {
+                String timestamp = values.getString(i + 2);
+                statisticsByQueue.put(values.getString(i), new JsonObject()
+                        .put(NAME, values.getString(i))
+                        .put(SIZE, values.getLong(i + 1))
+                        .put(TIMESTAMP, timestamp != null ? Double.valueOf(timestamp).longValue() : null)
+                        .put(CONSUMER, values.getString(i + 3))
+                        .put(LOCKED, values.getLong(i + 4) == 1L));
+            }
+            JsonArray statistics = new JsonArray();
+            for (String queue : queues) {
+                statistics.add(statisticsByQueue.get(queue));
+            }
+            event.reply(new JsonObject().put(STATUS, OK).put(VALUE, new JsonObject().put(QUEUES, statistics)));
+        });
+    }
+
+    private void deleteQueueItems(final Message<JsonObject> event) {
+        JsonObject payload = event.body().getJsonObject(PAYLOAD);
+        String queue = payload.getString(QUEUENAME);
+        List<Integer> indexes = new ArrayList<>();
+        if (payload.containsKey(INDEXES)) {
+            Object values = payload.getValue(INDEXES);
+            if (values instanceof JsonArray) {
+                for (Object value : (JsonArray) values) {
+                    indexes.add(toIndex(value));
+                }
+            }
+            if (!(values instanceof JsonArray) || indexes.contains(null)) {
+                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + INDEXES + "' must be an array of integers"));
+                return;
+            }
+        } else {
+            Integer index = toIndex(payload.getValue(INDEX));
+            if (index == null) {
+                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, "Property '" + INDEX + "' or '" + INDEXES + "' missing or not an integer"));
+                return;
+            }
+            indexes.add(index);
+        }
+        // A tombstone unique to this call cannot collide with a queue item
+        String tombstone = "TO_DELETE_" + UUID.randomUUID().toString();
+        adminLuaScriptManager.handleDeleteQueueItems(laneKeys(queue), tombstone, indexes, result -> {
+            if (result.failed()) {
+                event.reply(new JsonObject().put(STATUS, ERROR));
+            } else if (result.result().getLong(0) < 0) {
+                log.debug("RedisQues Unable to delete item at index " + result.result().getValue(1) + " of queue " + queue);
+                event.reply(new JsonObject().put(STATUS, ERROR));
+            } else {
+                event.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+    }
+
+    /**
+     * @return the value as index of a queue item, <code>null</code> when it is not an integer
+     */
+    private static Integer toIndex(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value instanceof Long && (Long) value == ((Long) value).intValue()) {
+            return ((Long) value).intValue();
+        }
+        return null;
+    }
+
     private void unsupportedOperation(String operation, Message<JsonObject> event){
         JsonObject reply = new JsonObject();
         String message = "QUEUE_ERROR: Unsupported operation received: " + operation;
@@ -322,8 +1011,15 @@ public class RedisQues extends AbstractVerticle {
     }
 
     @Override
-    public void stop() {
-        unregisterConsumers(true);
+    public void stop(Future<Void> stopFuture) {
+        locksMessageConsumer.unregister();
+        // the pools are closed only once the consumers are unregistered and the timestamps are flushed
+        unregisterConsumers(true, unregistered -> flushTimestamps(flushed -> {
+            redisPool.close();
+            housekeepingRedisPool.close();
+            adminRedisPool.close();
+            stopFuture.complete();
+        }));
     }
 
     private void gracefulStop(final Handler<Void> doneHandler) {
@@ -337,192 +1033,424 @@ public class RedisQues extends AbstractVerticle {
     }
 
     private void unregisterConsumers(boolean force) {
+        unregisterConsumers(force, null);
+    }
+
+    /**
+     * @param force whether the consumers of the queues being consumed are unregistered as well
+     * @param doneHandler (optional) To get informed when the registrations of all queues are handled.
+     */
+    private void unregisterConsumers(boolean force, Handler<Void> doneHandler) {
         if (log.isTraceEnabled()) {
             log.trace("RedisQues unregister consumers force: " + force);
         }
         log.debug("RedisQues Unregistering consumers");
-        for (final Map.Entry<String, QueueState> entry : myQueues.entrySet()) {
-            final String queue = entry.getKey();
-            if (force || entry.getValue() == QueueState.READY) {
+        final List<String> queues = myQueues.entrySet().stream()
+                .filter(entry -> force || entry.getValue() == QueueState.READY)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (queues.isEmpty()) {
+            if (doneHandler != null) {
+                doneHandler.handle(null);
+            }
+            return;
+        }
+        final AtomicInteger pending = new AtomicInteger(queues.size());
+        for (final String queue : queues) {
+            if (log.isTraceEnabled()) {
+                log.trace("RedisQues unregister consumers queue: " + queue);
+            }
+            refreshRegistration(queue, event -> {
+                // Make sure that I am still the registered consumer
+                String consumerKey = keys.consumerKey(queue);
                 if (log.isTraceEnabled()) {
-                    log.trace("RedisQues unregister consumers queue: " + queue);
+                    log.trace("RedisQues unregister consumers get: " + consumerKey);
                 }
-                refreshRegistration(queue, event -> {
-                    // Make sure that I am still the registered consumer
-                    String consumerKey = redisPrefix + consumersPrefix + queue;
+                housekeepingRedisPool.get().get(consumerKey, event1 -> {
+                    String consumer = event1.result();
                     if (log.isTraceEnabled()) {
-                        log.trace("RedisQues unregister consumers get: " + consumerKey);
+                        log.trace("RedisQues unregister consumers get result: " + consumer);
+                    }
+                    if (uid.equals(consumer)) {
+                        log.debug("RedisQues remove consumer: " + uid);
+                        myQueues.remove(queue);
+                        queueFailures.remove(queue);
+                        consumerCache.invalidate(queue);
+                    }
+                    if (pending.decrementAndGet() == 0 && doneHandler != null) {
+                        doneHandler.handle(null);
                     }
-                    redisClient.get(consumerKey, event1 -> {
-                        String consumer = event1.result();
-                        if (log.isTraceEnabled()) {
-                            log.trace("RedisQues unregister consumers get result: " + consumer);
-                        }
-                        if (uid.equals(consumer)) {
-                            log.debug("RedisQues remove consumer: " + uid);
-                            myQueues.remove(queue);
-                        }
-                    });
                 });
-            }
+            });
         }
     }
 
     /**
      * Caution: this may in some corner case violate the ordering for one
      * message.
+     *
+     * The consumer keys are iterated with SCAN and deleted in bounded batches, so redis is never blocked by a
+     * single KEYS or DEL over all consumers.
      */
-    private void resetConsumers() {
+    private void resetConsumers(final Message<JsonObject> event) {
         log.debug("RedisQues Resetting consumers");
-        String keysPattern = redisPrefix + consumersPrefix + "*";
+        String keysPattern = keys.consumersPattern();
         if (log.isTraceEnabled()) {
-            log.trace("RedisQues reset consumers keys: " + keysPattern);
+            log.trace("RedisQues reset consumers scan: " + keysPattern);
         }
-        redisClient.keys(keysPattern, keysResult -> {
-            if(keysResult.failed()) {
-                log.error("Unable to get redis keys of consumers");
+        consumerCache.clear();
+        resetConsumers(event, keysPattern, "0", 0, 0);
+    }
+
+    private void resetConsumers(final Message<JsonObject> event, final String keysPattern, final String cursor,
+                                final long resetCount, final int iterations) {
+        ScanOptions scanOptions = new ScanOptions().setMatch(keysPattern).setCount(RESET_CONSUMERS_BATCH_SIZE);
+        adminRedisPool.get().scan(cursor, scanOptions, scanResult -> {
+            if (scanResult.failed()) {
+                String message = "Unable to scan redis keys of consumers";
+                log.error(message);
+                event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, message));
                 return;
             }
-            List keys = keysResult.result().getList();
-            if(keys == null || keys.size() < 1) {
-                log.debug("No consumers found to reset");
+            final String nextCursor = scanResult.result().getString(0);
+            List<String> consumerKeys = asStrings(scanResult.result().getJsonArray(1));
+            if (consumerKeys.isEmpty()) {
+                resetConsumersNextBatch(event, keysPattern, nextCursor, resetCount, iterations + 1);
                 return;
             }
-            redisClient.delMany(keys, delManyResult -> {
-                if (delManyResult.succeeded()) {
-                    Long count = delManyResult.result();
-                    log.debug("Successfully reset " + count + " consumers");
-                } else {
-                    log.error("Unable to delete redis keys of consumers");
+            adminRedisPool.get().delMany(consumerKeys, delManyResult -> {
+                if (delManyResult.failed()) {
+                    String message = "Unable to delete redis keys of consumers";
+                    log.error(message);
+                    event.reply(new JsonObject().put(STATUS, ERROR).put(MESSAGE, message));
+                    return;
                 }
+                long count = resetCount + delManyResult.result();
+                log.debug("RedisQues reset consumers progress: " + count + " consumers reset after " + (iterations + 1) + " iterations");
+                resetConsumersNextBatch(event, keysPattern, nextCursor, count, iterations + 1);
             });
         });
     }
 
+    private void resetConsumersNextBatch(final Message<JsonObject> event, final String keysPattern, final String cursor,
+                                         final long resetCount, final int iterations) {
+        if (!"0".equals(cursor)) {
+            resetConsumers(event, keysPattern, cursor, resetCount, iterations);
+            return;
+        }
+        log.debug("Successfully reset " + resetCount + " consumers");
+        JsonObject value = new JsonObject().put(COUNT, resetCount).put(ITERATIONS, iterations);
+        event.reply(new JsonObject().put(STATUS, OK).put(VALUE, value));
+    }
+
     private void consume(final String queue) {
         log.debug(" RedisQues Requested to consume queue " + queue);
-        refreshRegistration(queue, event -> {
-            // Make sure that I am still the registered consumer
-            String key = redisPrefix + consumersPrefix + queue;
-            if (log.isTraceEnabled()) {
-                log.trace("RedisQues consume get: " + key);
+        if (myQueues.get(queue) == QueueState.CONSUMING) {
+            // Get the next message only once the previous has
+            // been completely processed
+            log.debug("RedisQues Queue " + queue + " is already beeing consumed");
+            return;
+        }
+        if (lockedQueues.contains(queue)) {
+            // Consuming resumes when the lock is deleted
+            log.debug("RedisQues Queue " + queue + " is locked, consuming is paused");
+            return;
+        }
+        // Make sure that I am still the registered consumer, refresh the registration
+        // and read the head of the queue in one go
+        String consumerKey = keys.consumerKey(queue);
+        String queueKey = keys.queueKey(queue);
+        if (log.isTraceEnabled()) {
+            log.trace("RedisQues consume claim: " + consumerKey + " queue: " + queueKey);
+        }
+        final boolean batch = isPrefetchQueue(queue);
+        final String deliveryId = UUID.randomUUID().toString();
+        // The queue counts as consumed from the claim on, so that a second request to consume cannot claim further
+        // items while the first claim is pending
+        final QueueState state = myQueues.put(queue, QueueState.CONSUMING);
+        if (log.isTraceEnabled()) {
+            log.trace("RedisQues consumer: " + uid + " queue: " + queue + " state: " + state);
+        }
+        luaScriptManager.handleClaim(consumerKey, laneKeys(queue), uid, 2 * refreshPeriod, batch ? prefetchCount : 1,
+                reliableMode ? processingKey(queue) : "", keys.inflightKey(queue), deliveryId, queue, timed("claim", claimResult -> {
+            if (claimResult.failed()) {
+                log.error("RedisQues QUEUE_ERROR: Unable to claim queue " + queue + ": " + claimResult.cause().getMessage());
+                if (state == null) {
+                    myQueues.remove(queue);
+                } else {
+                    myQueues.put(queue, state);
+                }
+                return;
             }
-            redisClient.get(key, event1 -> {
-                String consumer = event1.result();
-                if (log.isTraceEnabled()) {
-                    log.trace("RedisQues refresh registration consumer: " + consumer);
+            JsonArray claim = claimResult.result();
+            if (claim.getLong(0) == 1L) {
+                if (state == null) {
+                    // No previous state was stored. Maybe the
+                    // consumer was restarted
+                    log.warn("Received request to consume from a queue I did not know about: " + queue);
                 }
-                if (uid.equals(consumer)) {
-                    QueueState state = myQueues.get(queue);
+                log.debug("RedisQues Starting to consume queue " + queue);
+                // the lane the items were read from, missing for an empty queue
+                String laneKey = claim.size() > 2 ? claim.getString(2) : queueKey;
+                List<String> items = new ArrayList<>();
+                for (int i = 3; i < claim.size(); i++) {
+                    items.add(claim.getString(i));
+                }
+                readQueue(queue, laneKey, deliveryId, items, batch);
+            } else {
+                // Somehow registration changed. Let's renotify.
+                String consumer = claim.size() > 1 ? claim.getString(1) : null;
+                log.warn("Registration for queue " + queue + " has changed to " + consumer);
+                myQueues.remove(queue);
+                queueFailures.remove(queue);
+                consumerCache.invalidate(queue);
+                notifyConsumer(queue);
+            }
+        }));
+    }
+
+    private boolean isPrefetchQueue(String queue) {
+        return prefetchCount > 1 && prefetchQueuesPattern != null && prefetchQueuesPattern.matcher(queue).matches();
+    }
+
+    /**
+     * Delivers the items read from the head of the queue to the processor.
+     *
+     * @param queue the name of the queue
+     * @param laneKey the redis key of the lane of the queue the items were read from
+     * @param deliveryId the id of the items in the processing hash in reliable mode
+     * @param items the items read from the head of the lane
+     * @param batch whether the items are delivered as one batch message (prefetch queues)
+     */
+    private void readQueue(final String queue, final String laneKey, final String deliveryId, final List<String> items, final boolean batch) {
+        if (log.isTraceEnabled()) {
+            log.trace("RedisQues read queue: " + queue + " items: " + items.size());
+        }
+        if (!items.isEmpty()) {
+            processMessageWithTimeout(queue, deliveryId, items, batch, sendResult -> {
+                if (reliableMode) {
+                    readQueueReliable(queue, laneKey, deliveryId, items, sendResult);
+                } else if (sendResult.success) {
+                    if (maxAttempts > 0 && queueFailures.containsKey(queue)) {
+                        // Reset the failed attempts of the head item, these are only counted after a failure
+                        redisPool.get(queue).hdel(keys.attemptsKey(queue), queue, event -> {});
+                    }
+                    // Remove the processed messages from the
+                    // queue, as long as they are still at its head
                     if (log.isTraceEnabled()) {
-                        log.trace("RedisQues consumer: " + consumer + " queue: " + queue + " state: " + state);
+                        log.trace("RedisQues read queue ack: " + laneKey + " count: " + items.size());
                     }
-                    // Get the next message only once the previous has
-                    // been completely processed
-                    if (state != QueueState.CONSUMING) {
-                        myQueues.put(queue, QueueState.CONSUMING);
-                        if (state == null) {
-                            // No previous state was stored. Maybe the
-                            // consumer was restarted
-                            log.warn("Received request to consume from a queue I did not know about: " + queue);
+                    luaScriptManager.handleAck(queue, laneKey, items, timed("ack", ack -> {
+                        if (ack.succeeded() && ack.result().getLong(0) == 1L) {
+                            messagesRemoved(queue, items.size(), sendResult);
+                        } else {
+                            log.warn("RedisQues Head of queue " + queue + " changed, acknowledge of delivery " + deliveryId + " is stale");
+                            metrics.staleAcknowledged(queue);
+                            messagesRemoved(queue, 0, sendResult);
                         }
-                        log.debug("RedisQues Starting to consume queue " + queue);
-                        readQueue(queue);
+                    }));
+                } else if (maxAttempts > 0) {
+                    deadLetterOrReschedule(queue, laneKey, items.get(0), sendResult);
+                } else {
+                    processingFailed(queue, sendResult);
+                }
+            });
+        } else {
+            // This can happen when requests to consume happen at the same moment the queue is emptied.
+            log.debug("Got a request to consume from empty queue " + queue);
+            myQueues.put(queue, QueueState.READY);
+        }
+    }
 
-                    } else {
-                        log.debug("RedisQues Queue " + queue + " is already beeing consumed");
+    /**
+     * Acknowledges a delivery of the reliable mode by removing it from the processing hash, or returns its items to
+     * the head of the lane on failure. A reply arriving after the delivery was already acknowledged or returned, e.g.
+     * a late reply after the processor timeout, finds no delivery and is ignored.
+     */
+    private void readQueueReliable(final String queue, final String laneKey, final String deliveryId,
+                                   final List<String> items, final SendResult sendResult) {
+        if (sendResult.success) {
+            luaScriptManager.handleAckDelivery(queue, processingKey(queue), keys.inflightKey(queue), deliveryId, timed("ackDelivery", ack -> {
+                if (ack.succeeded() && ack.result().getLong(0) == 1L) {
+                    if (maxAttempts > 0 && queueFailures.containsKey(queue)) {
+                        redisPool.get(queue).hdel(keys.attemptsKey(queue), queue, event -> {});
                     }
+                    messagesRemoved(queue, items.size(), sendResult);
                 } else {
-                    // Somehow registration changed. Let's renotify.
-                    log.warn("Registration for queue " + queue + " has changed to " + consumer);
-                    myQueues.remove(queue);
-                    notifyConsumer(queue);
+                    log.debug("RedisQues Ignoring acknowledge of delivery " + deliveryId + " of queue " + queue);
+                    metrics.staleAcknowledged(queue);
                 }
-            });
+            }));
+            return;
+        }
+        luaScriptManager.handleNack(queue, processingKey(queue), keys.inflightKey(queue), deliveryId, timed("nack", nack -> {
+            if (nack.failed() || nack.result().getLong(0) != 1L) {
+                log.debug("RedisQues Ignoring failure of delivery " + deliveryId + " of queue " + queue);
+            } else if (maxAttempts > 0) {
+                deadLetterOrReschedule(queue, laneKey, items.get(0), sendResult);
+            } else {
+                processingFailed(queue, sendResult);
+            }
+        }));
+    }
+
+    private void processingFailed(final String queue, final SendResult sendResult) {
+        // Failed. Message will be kept in queue and retried later
+        log.debug("RedisQues Processing failed for queue " + queue);
+        myQueues.put(queue, QueueState.READY);
+        vertx.cancelTimer(sendResult.timeoutId);
+        rescheduleSendMessageAfterFailure(queue);
+    }
+
+    /**
+     * Counts the failed attempt of the head item of the queue. When the max attempts are reached, the item is moved
+     * to the dead letter queue so that the following items can be processed. Otherwise the queue is rescheduled.
+     */
+    private void deadLetterOrReschedule(final String queue, final String laneKey, final String headItem, final SendResult sendResult) {
+        luaScriptManager.handleDeadLetter(keys.attemptsKey(queue), laneKey, keys.deadLetterQueueKey(queue),
+                keys.deadLetterQueuesKey(keys.shardOf(queue)), queue, headItem, maxAttempts, timed("deadLetter", result -> {
+            if (result.succeeded() && result.result().getLong(0) == 1L) {
+                log.warn("RedisQues QUEUE_ERROR: Moved head item of queue " + queue + " to the dead letter queue after "
+                        + result.result().getLong(1) + " failed attempts");
+                metrics.deadLettered(queue);
+                messagesRemoved(queue, 0, sendResult);
+            } else {
+                processingFailed(queue, sendResult);
+            }
+        }));
+    }
+
+    private void replayDeadLetterQueue(final Message<JsonObject> event) {
+        final String queue = event.body().getJsonObject(PAYLOAD).getString(QUEUENAME);
+        adminLuaScriptManager.handleReplayDeadLetterQueue(keys.deadLetterQueueKey(queue), keys.deadLetterQueuesKey(keys.shardOf(queue)),
+                keys.queueKey(queue), queue, result -> {
+            if (result.failed()) {
+                event.reply(new JsonObject().put(STATUS, ERROR));
+                return;
+            }
+            long replayed = result.result().getLong(0);
+            if (replayed > 0) {
+                updateTimestamp(queue, null);
+                notifyConsumer(queue);
+            }
+            event.reply(new JsonObject().put(STATUS, OK).put(VALUE, replayed));
         });
     }
 
-    private void readQueue(final String queue) {
-        if (log.isTraceEnabled()) {
-            log.trace("RedisQues read queue: " + queue);
+    private void messagesRemoved(final String queue, final int count, final SendResult sendResult) {
+        log.debug("RedisQues Message removed, queue " + queue + " is ready again");
+        metrics.dequeued(queue, count);
+        queueFailures.remove(queue);
+        myQueues.put(queue, QueueState.READY);
+        vertx.cancelTimer(sendResult.timeoutId);
+        // Notify that we are stopped in
+        // case it
+        // was the last active consumer
+        if (stoppedHandler != null) {
+            unregisterConsumers(false);
+            if (myQueues.isEmpty()) {
+                stoppedHandler.handle(null);
+            }
         }
-        String key = queuesPrefix + queue;
+        // Issue notification to consume next message if any
         if (log.isTraceEnabled()) {
-            log.trace("RedisQues read queue lindex: " + key);
+            log.trace("RedisQues read queue: " + keys.queueKey(queue));
         }
+        getQueueLength(queue, answer -> {
+            if (answer.succeeded() && answer.result() > 0) {
+                notifyConsumer(queue);
+            }
+        });
+    }
 
-        redisClient.lindex(key, 0, answer -> {
-            if (log.isTraceEnabled()) {
-                log.trace("RedisQues read queue lindex result: " + answer.result());
-            }
-            if (answer.result() != null) {
-                processMessageWithTimeout(queue, answer.result(), sendResult -> {
-                    if (sendResult.success) {
-                        // Remove the processed message from the
-                        // queue
-                        String key1 = queuesPrefix + queue;
-                        if (log.isTraceEnabled()) {
-                            log.trace("RedisQues read queue lpop: " + key1);
-                        }
-                        redisClient.lpop(key1, jsonAnswer -> {
-                            log.debug("RedisQues Message removed, queue " + queue + " is ready again");
-                            myQueues.put(queue, QueueState.READY);
-                            vertx.cancelTimer(sendResult.timeoutId);
-                            // Notify that we are stopped in
-                            // case it
-                            // was the last active consumer
-                            if (stoppedHandler != null) {
-                                unregisterConsumers(false);
-                                if (myQueues.isEmpty()) {
-                                    stoppedHandler.handle(null);
-                                }
-                            }
-                            // Issue notification to consume next message if any
-                            String key2 = queuesPrefix + queue;
-                            if (log.isTraceEnabled()) {
-                                log.trace("RedisQues read queue: " + key);
-                            }
-                            redisClient.llen(key2, answer1 -> {
-                                if (answer1.result() > 0) {
-                                    notifyConsumer(queue);
-                                }
-                            });
-                        });
-                    } else {
-                        // Failed. Message will be kept in queue and retried later
-                        log.debug("RedisQues Processing failed for queue " + queue);
-                        myQueues.put(queue, QueueState.READY);
-                        vertx.cancelTimer(sendResult.timeoutId);
-                        rescheduleSendMessageAfterFailure(queue);
-                    }
-                });
+    /**
+     * @return the redis keys of the lanes of the queue in the order they are served, the priority lanes p0 .. pN
+     * followed by the default lane
+     */
+    private List<String> laneKeys(final String queue) {
+        List<String> laneKeys = new ArrayList<>(priorityLevels + 1);
+        for (int level = 0; level < priorityLevels; level++) {
+            laneKeys.add(keys.laneKey(queue, level));
+        }
+        laneKeys.add(keys.queueKey(queue));
+        return laneKeys;
+    }
+
+    /**
+     * Reads the item at the index of the queue when <code>value</code> is <code>null</code>, replaces it otherwise.
+     * The index addresses the lanes of the queue as one list in the order they are served.
+     */
+    private void queueItem(final String queue, final int index, final String value, final Handler<AsyncResult<String>> handler) {
+        adminLuaScriptManager.handleQueueItem(laneKeys(queue), index, value, result -> {
+            if (result.failed()) {
+                handler.handle(Future.failedFuture(result.cause()));
+            } else if (result.result().getLong(0) == 0L) {
+                handler.handle(Future.failedFuture("index " + index + " out of range of queue " + queue));
             } else {
-                // This can happen when requests to consume happen at the same moment the queue is emptied.
-                log.debug("Got a request to consume from empty queue " + queue);
-                myQueues.put(queue, QueueState.READY);
+                handler.handle(Future.succeededFuture(value == null ? result.result().getString(1) : OK));
             }
         });
     }
 
+    /**
+     * Gets the number of items of the queue over all its lanes and its items in flight. Without priority lanes and
+     * without the reliable mode, a plain LLEN is used.
+     */
+    private void getQueueLength(final String queue, final Handler<AsyncResult<Long>> handler) {
+        if (priorityLevels == 0 && !reliableMode) {
+            redisPool.get().llen(keys.queueKey(queue), timed("llen", handler));
+            return;
+        }
+        luaScriptManager.handleGetQueueLength(keys.inflightKey(queue), laneKeys(queue), queue, timed("getQueueLength", result -> {
+            if (result.succeeded()) {
+                handler.handle(Future.succeededFuture(result.result().getLong(0)));
+            } else {
+                handler.handle(Future.failedFuture(result.cause()));
+            }
+        }));
+    }
+
     private void rescheduleSendMessageAfterFailure(final String queue) {
         if(log.isTraceEnabled()) {
             log.trace("RedsQues reschedule after failure for queue: " + queue);
         }
-        vertx.setTimer(refreshPeriod * 1000, timerId -> notifyConsumer(queue));
+        metrics.rescheduled(queue);
+        int failures = queueFailures.merge(queue, 1, Integer::sum);
+        long delay = queueSettings.getRetryPolicy(queue).getDelayMs(failures);
+        log.debug("RedisQues Retry queue " + queue + " in " + delay + "ms after " + failures + " failures");
+        vertx.setTimer(delay, timerId -> notifyConsumer(queue));
     }
 
-    private void processMessageWithTimeout(final String queue, final String payload, final Handler<SendResult> handler) {
+    /**
+     * Sends the items to the processor. The handler is called once, either with the reply of the processor or with a
+     * failure when the processor timeout fires first. A reply arriving after the timeout is stale and only counted.
+     */
+    private void processMessageWithTimeout(final String queue, final String deliveryId, final List<String> payloads,
+                                           final boolean batch, final Handler<SendResult> handler) {
         final EventBus eb = vertx.eventBus();
         JsonObject message = new JsonObject();
         message.put("queue", queue);
-        message.put(PAYLOAD, payload);
+        message.put(DELIVERY_ID, deliveryId);
+        if (batch) {
+            message.put(PAYLOADS, new JsonArray(payloads));
+        } else {
+            message.put(PAYLOAD, payloads.get(0));
+        }
+        final String processorAddress = queueSettings.getProcessorAddress(queue);
         if (log.isTraceEnabled()) {
             log.trace("RedisQues process message: " + message + " for queue: " + queue + " send it to processor: " + processorAddress);
         }
 
+        final long sendTime = System.currentTimeMillis();
+        final AtomicBoolean completed = new AtomicBoolean(false);
+
         // start a timer, which will cancel the processing, if the consumer didn't respond
-        final long timeoutId = vertx.setTimer(processorTimeout, timeoutId1 -> {
+        final long timeoutId = vertx.setTimer(queueSettings.getProcessorTimeout(queue), timeoutId1 -> {
+            if (completed.getAndSet(true)) {
+                return;
+            }
             log.info("RedisQues QUEUE_ERROR: Consumer timeout " + uid + " queue: " + queue);
+            metrics.processorTimeout(queue);
             handler.handle(new SendResult(false, timeoutId1));
         });
 
@@ -536,10 +1464,16 @@ public class RedisQues extends AbstractVerticle {
                 } else {
                     success = Boolean.FALSE;
                 }
+                metrics.processorRoundTrip(queue, System.currentTimeMillis() - sendTime, success);
+                if (completed.getAndSet(true)) {
+                    log.warn("RedisQues Ignoring stale reply of delivery " + deliveryId + " of queue " + queue + " after the processor timeout");
+                    metrics.staleAcknowledged(queue);
+                    return;
+                }
                 handler.handle(new SendResult(success, timeoutId));
             }
         });
-        updateTimestamp(queue, null);
+        refreshTimestamp(queue);
     }
 
     private class SendResult {
@@ -556,12 +1490,32 @@ public class RedisQues extends AbstractVerticle {
         log.debug("RedisQues Notifying consumer of queue " + queue);
         final EventBus eb = vertx.eventBus();
 
+        // Shortcut when I am the registered consumer myself
+        QueueState state = myQueues.get(queue);
+        if (state != null && stoppedHandler == null) {
+            if (state == QueueState.READY) {
+                log.debug("RedisQues Queue " + queue + " is owned locally, consume it directly");
+                consume(queue);
+            } else {
+                // The next message is read as soon as the current one is processed
+                log.debug("RedisQues Queue " + queue + " is already beeing consumed locally");
+            }
+            return;
+        }
+
+        String cachedConsumer = consumerCache.get(queue);
+        if (cachedConsumer != null) {
+            log.debug("RedisQues Notifying cached consumer " + cachedConsumer + " to consume queue " + queue);
+            eb.send(cachedConsumer, queue);
+            return;
+        }
+
         // Find the consumer to notify
-        String key = redisPrefix + consumersPrefix + queue;
+        String key = keys.consumerKey(queue);
         if (log.isTraceEnabled()) {
             log.trace("RedisQues notify consumer get: " + key);
         }
-        redisClient.get(key, event -> {
+        redisPool.get(queue).get(key, event -> {
             String consumer = event.result();
             if (log.isTraceEnabled()) {
                 log.trace("RedisQues got consumer: " + consumer);
@@ -574,6 +1528,7 @@ public class RedisQues extends AbstractVerticle {
             } else {
                 // Notify the registered consumer
                 log.debug("RedisQues Notifying consumer " + consumer + " to consume queue " + queue);
+                consumerCache.put(queue, consumer);
                 eb.send(consumer, queue);
             }
         });
@@ -581,14 +1536,14 @@ public class RedisQues extends AbstractVerticle {
 
     private void refreshRegistration(String queue, Handler<AsyncResult<Long>> handler) {
         log.debug("RedisQues Refreshing registration of queue " + queue + ", expire at " + (2 * refreshPeriod));
-        String key = redisPrefix + consumersPrefix + queue;
+        String key = keys.consumerKey(queue);
         if (log.isTraceEnabled()) {
             log.trace("RedisQues refresh registration: " + key);
         }
         if (handler != null) {
-            redisClient.expire(key, 2 * refreshPeriod, handler);
+            housekeepingRedisPool.get().expire(key, 2 * refreshPeriod, handler);
         } else {
-            redisClient.expire(key, 2 * refreshPeriod, event -> {});
+            housekeepingRedisPool.get().expire(key, 2 * refreshPeriod, event -> {});
         }
     }
 
@@ -599,81 +1554,234 @@ public class RedisQues extends AbstractVerticle {
      * @param handler (optional) To get informed when done.
      */
     private void updateTimestamp(final String queue, Handler<AsyncResult<Long>> handler) {
+        updateTimestamps(Collections.singletonList(queue), handler);
+    }
+
+    /**
+     * Stores the queue names in the sorted set with the current date as score using a single ZADD. The timestamps
+     * are always written through, so that a queue filled by this instance is found by the queue check of the other
+     * instances, even when this instance dies before the next flush.
+     *
+     * @param queues the names of the queues
+     * @param handler (optional) To get informed when done.
+     */
+    private void updateTimestamps(final Collection<String> queues, Handler<AsyncResult<Long>> handler) {
+        long timestamp = System.currentTimeMillis();
         if (log.isTraceEnabled()) {
-            log.trace("RedisQues update timestamp for queue: " + queue + " to: " + System.currentTimeMillis());
+            log.trace("RedisQues update timestamp for queues: " + queues + " to: " + timestamp);
         }
-        if (handler != null) {
-            redisClient.zadd(redisPrefix + "queues", System.currentTimeMillis(), queue, handler);
+        Map<String, Double> members = new HashMap<>();
+        for (String queue : queues) {
+            members.put(queue, (double) timestamp);
+            // a pending older timestamp must not overwrite this one with the next flush
+            dirtyTimestamps.remove(queue);
+        }
+        zaddTimestamps(redisPool, members, handler != null ? handler : event -> {});
+    }
+
+    /**
+     * Refreshes the timestamp of a queue being processed. When a timestamp flush interval is configured, the
+     * timestamp is only recorded locally and written to redis with the next flush, which coalesces the repeated
+     * updates of busy queues. The queue is already in the sorted set, since its timestamp was written through when
+     * it was filled.
+     *
+     * @param queue the name of the queue
+     */
+    private void refreshTimestamp(final String queue) {
+        if (timestampFlushInterval > 0) {
+            dirtyTimestamps.put(queue, (double) System.currentTimeMillis());
         } else {
-            redisClient.zadd(redisPrefix + "queues", System.currentTimeMillis(), queue, event -> {});
+            updateTimestamp(queue, null);
         }
     }
 
+    /**
+     * Writes the queue timestamps to the sorted sets of their shards, using a single ZADD per shard.
+     */
+    private void zaddTimestamps(final RedisClientPool pool, final Map<String, Double> members, final Handler<AsyncResult<Long>> handler) {
+        Map<Integer, Map<String, Double>> membersByShard = new HashMap<>();
+        members.forEach((queue, timestamp) -> membersByShard.computeIfAbsent(keys.shardOf(queue), shard -> new HashMap<>()).put(queue, timestamp));
+        this.<Long>forEachShard((shard, shardHandler) -> {
+            Map<String, Double> shardMembers = membersByShard.get(shard);
+            if (shardMembers == null) {
+                shardHandler.handle(Future.succeededFuture(0L));
+                return;
+            }
+            pool.get().zaddMany(keys.queuesKey(shard), shardMembers, shardHandler);
+        }, result -> {
+            if (result.succeeded()) {
+                handler.handle(Future.succeededFuture(result.result().stream().mapToLong(Long::longValue).sum()));
+            } else {
+                handler.handle(Future.failedFuture(result.cause()));
+            }
+        });
+    }
+
+    /**
+     * Writes the locally recorded queue timestamps to redis using a single ZADD.
+     *
+     * @param handler (optional) To get informed when done.
+     */
+    private void flushTimestamps(Handler<AsyncResult<Long>> handler) {
+        if (dirtyTimestamps.isEmpty()) {
+            if (handler != null) {
+                handler.handle(Future.succeededFuture(0L));
+            }
+            return;
+        }
+        Map<String, Double> members = dirtyTimestamps;
+        dirtyTimestamps = new HashMap<>();
+        if (log.isTraceEnabled()) {
+            log.trace("RedisQues flush timestamps of queues: " + members.keySet());
+        }
+        zaddTimestamps(housekeepingRedisPool, members, timed("zadd", event -> {
+            if (event.failed()) {
+                log.error("RedisQues Unable to flush queue timestamps: " + event.cause().getMessage());
+                // Keep the timestamps for the next flush unless they got updated in the meantime
+                members.forEach(dirtyTimestamps::putIfAbsent);
+            }
+            if (handler != null) {
+                handler.handle(event);
+            }
+        }));
+    }
+
     /**
      * Notify not-active/not-empty queues to be processed (e.g. after a reboot).
      * Check timestamps of not-active/empty queues.
      * This uses a sorted set of queue names scored by last update timestamp.
+     * The inactive queues are checked in redis by a lua script handling a chunk of queues per call, which keeps
+     * the load on redis and the event bus bounded without a round trip per queue.
+     *
+     * @param doneHandler (optional) To get informed when done.
      */
-    private void checkQueues() {
+    private void checkQueues(Handler<Void> doneHandler) {
         log.debug("Checking queues timestamps");
         // List all queues that look inactive (i.e. that have not been updated since 3 periods).
         final long limit = System.currentTimeMillis() - 3 * refreshPeriod * 1000;
-        redisClient.zrangebyscore(redisPrefix + "queues","-inf", String.valueOf(limit), RangeLimitOptions.NONE, answer -> {
-            JsonArray queues = answer.result();
-            final AtomicInteger counter = new AtomicInteger(queues.size());
+        this.<Void>forEachShard((shard, handler) -> checkQueuesChunk(shard, limit, done -> handler.handle(Future.succeededFuture())), done -> {
+            if (doneHandler != null) {
+                doneHandler.handle(null);
+            }
+        });
+    }
+
+    private void checkQueuesChunk(final int shard, final long limit, final Handler<Void> doneHandler) {
+        // Non empty queues get a new timestamp and empty queues are removed, so every chunk starts at the lowest score.
+        housekeepingLuaScriptManager.handleCheckQueues(keys.queuesKey(shard), keys.inflightKey(shard), keys.queuesPrefix(shard),
+                keys.consumersPrefix(shard), limit, System.currentTimeMillis(), 2 * refreshPeriod, checkQueuesPageSize,
+                priorityLevels, keys.lanesPrefix(shard), timed("checkQueues", answer -> {
+            if (answer.failed()) {
+                log.error("RedisQues Unable to check inactive queues: " + answer.cause().getMessage());
+                doneHandler.handle(null);
+                return;
+            }
+            long processed = answer.result().getLong(0);
+            JsonArray activeQueues = answer.result().getJsonArray(1);
             if (log.isTraceEnabled()) {
-                log.trace("RedisQues update queues: " + counter);
+                log.trace("RedisQues checked queues: " + processed + " not empty: " + activeQueues.size());
             }
-            for (Object queueObject : queues) {
-                // Check if the inactive queue is not empty (i.e. the key exists)
-                final String queue = (String) queueObject;
-                String key = queuesPrefix + queue;
-                if (log.isTraceEnabled()) {
-                    log.trace("RedisQues update queue: " + key);
-                }
-                redisClient.exists(key, event -> {
-                    if (event.result() == 1) {
-                        log.debug("Updating queue timestamp " + queue);
-                        // If not empty, update the queue timestamp to keep it in the sorted set.
-                        updateTimestamp(queue, message -> {
-                            // Ensure we clean the old queues after having updated all timestamps
-                            if (counter.decrementAndGet() == 0) {
-                                removeOldQueues(limit);
-                            }
-                        });
-                        // Make sure its TTL is correctly set (replaces the previous orphan detection mechanism).
-                        refreshRegistration(queue, null);
-                        // And trigger its consumer.
-                        notifyConsumer(queue);
-                    } else {
-                        // Ensure we clean the old queues also in the case of empty queue.
-                        if (log.isTraceEnabled()) {
-                            log.trace("RedisQues remove old queue: " + queue);
-                        }
-                        if (counter.decrementAndGet() == 0) {
-                            removeOldQueues(limit);
-                        }
-                    }
-                });
+            if (!activeQueues.isEmpty()) {
+                log.debug("Updated queue timestamps " + activeQueues);
             }
-        });
+            for (Object queue : activeQueues) {
+                // Trigger the consumer of the non empty queue.
+                notifyConsumer((String) queue);
+            }
+            if (processed < checkQueuesPageSize) {
+                doneHandler.handle(null);
+            } else {
+                checkQueuesChunk(shard, limit, doneHandler);
+            }
+        }));
     }
 
     /**
-     * Remove queues from the sorted set that are timestamped before a limit time.
+     * Runs an operation on every shard of the key layout and collects the results in shard order. Fails with the
+     * first failing shard.
      *
-     * @param limit limit timestamp
+     * @param operation the operation receiving the shard and the handler of its result
+     * @param handler the handler receiving the results of all shards
      */
-    private void removeOldQueues(long limit) {
-        log.debug("Cleaning old queues");
-        redisClient.zremrangebyscore(redisPrefix + "queues", "-inf", String.valueOf(limit), event -> {});
+    private <T> void forEachShard(final BiConsumer<Integer, Handler<AsyncResult<T>>> operation, final Handler<AsyncResult<List<T>>> handler) {
+        final int shards = keys.getShards();
+        final List<T> results = new ArrayList<>(Collections.nCopies(shards, null));
+        final AtomicInteger pending = new AtomicInteger(shards);
+        final AtomicBoolean failed = new AtomicBoolean();
+        for (int shard = 0; shard < shards; shard++) {
+            final int index = shard;
+            operation.accept(shard, result -> {
+                if (result.failed()) {
+                    if (failed.compareAndSet(false, true)) {
+                        handler.handle(Future.failedFuture(result.cause()));
+                    }
+                    return;
+                }
+                results.set(index, result.result());
+                if (pending.decrementAndGet() == 0 && !failed.get()) {
+                    handler.handle(Future.succeededFuture(results));
+                }
+            });
+        }
+    }
+
+    private static AsyncResult<JsonArray> concat(final AsyncResult<List<JsonArray>> results) {
+        if (results.failed()) {
+            return Future.failedFuture(results.cause());
+        }
+        JsonArray concatenated = new JsonArray();
+        results.result().forEach(concatenated::addAll);
+        return Future.succeededFuture(concatenated);
+    }
+
+    /**
+     * Wraps a handler of a redis operation to record the latency of the operation in the metrics.
+     *
+     * @param operation the type of the redis operation
+     * @param handler the handler receiving the result of the operation
+     * @return the wrapping handler
+     */
+    private <T> Handler<AsyncResult<T>> timed(final String operation, final Handler<AsyncResult<T>> handler) {
+        final long start = System.currentTimeMillis();
+        return result -> {
+            metrics.redisOperation(operation, System.currentTimeMillis() - start, result.succeeded());
+            handler.handle(result);
+        };
+    }
+
+    /**
+     * @return the paging property of the payload given as number or as numeric string, the default when it is missing
+     * or invalid
+     */
+    private int getPagingValue(JsonObject payload, String property, int defaultValue) {
+        Object value = payload.getValue(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(String.valueOf(value));
+        } catch (NumberFormatException ex) {
+            log.warn("Invalid " + property + " parameter '" + value + "' configured for queues. Using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private int getQueueItemsOffset(Integer offset) {
+        if (offset == null) {
+            return 0;
+        }
+        if (offset < 0) {
+            log.warn("Invalid offset parameter '" + offset + "' configured for queue items. Using 0");
+            return 0;
+        }
+        return offset;
     }
 
-    private int getMaxQueueItemCountIndex(String limit) {
+    private int getMaxQueueItemCountIndex(Object limit) {
         int defaultMaxIndex = DEFAULT_MAX_QUEUEITEM_COUNT;
         if (limit != null) {
             try {
-                int maxIndex = Integer.parseInt(limit) - 1;
+                int maxIndex = Integer.parseInt(String.valueOf(limit)) - 1;
                 if (maxIndex >= 0) {
                     defaultMaxIndex = maxIndex;
                 }
@@ -14,17 +14,17 @@ import io.vertx.core.json.JsonObject;
  */
 public class GetQueueItemsHandler implements Handler<AsyncResult<JsonArray>> {
     private Message<JsonObject> event;
-    private Long queueItemCount;
 
-    public GetQueueItemsHandler(Message<JsonObject> event, Long queueItemCount) {
+    public GetQueueItemsHandler(Message<JsonObject> event) {
         this.event = event;
-        this.queueItemCount = queueItemCount;
     }
 
     @Override
     public void handle(AsyncResult<JsonArray> reply) {
         if(reply.succeeded()){
-            JsonArray resultArray = reply.result();
+            // the result of the get queue items lua script is [queueItemCount, [item1, .., itemN]]
+            Long queueItemCount = reply.result().getLong(0);
+            JsonArray resultArray = reply.result().getJsonArray(1);
             JsonArray countInfo = new JsonArray();
             countInfo.add(resultArray.size());
             countInfo.add(queueItemCount);
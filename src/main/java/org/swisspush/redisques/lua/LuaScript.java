@@ -1,7 +1,23 @@
 package org.swisspush.redisques.lua;
 
 public enum LuaScript {
-    CHECK("redisques_check.lua");
+    CHECK("redisques_check.lua"),
+    CLAIM("redisques_claim.lua"),
+    CHECK_QUEUES("redisques_check_queues.lua"),
+    REFRESH_REGISTRATIONS("redisques_refresh_registrations.lua"),
+    DELETE_QUEUE_ITEMS("redisques_delete_queue_items.lua"),
+    GET_QUEUE_ITEMS("redisques_get_queue_items.lua"),
+    QUEUE_ITEM("redisques_queue_item.lua"),
+    GET_QUEUES("redisques_get_queues.lua"),
+    GET_QUEUES_STATISTICS("redisques_get_queues_statistics.lua"),
+    DEAD_LETTER("redisques_dead_letter.lua"),
+    REPLAY_DEAD_LETTER_QUEUE("redisques_replay_dead_letter_queue.lua"),
+    MOVE_DELAYED("redisques_move_delayed.lua"),
+    GET_QUEUE_LENGTH("redisques_get_queue_length.lua"),
+    ACK("redisques_ack.lua"),
+    ACK_DELIVERY("redisques_ack_delivery.lua"),
+    NACK("redisques_nack.lua"),
+    RECOVER_PROCESSING("redisques_recover_processing.lua");
 
     private String file;
 
@@ -1,9 +1,13 @@
 package org.swisspush.redisques.lua;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.redis.RedisClient;
+import org.swisspush.redisques.util.RedisClientPool;
 
 import java.util.*;
 
@@ -14,16 +18,21 @@ import java.util.*;
  */
 public class LuaScriptManager {
 
-    private RedisClient redisClient;
+    private RedisClientPool redisClientPool;
     private Map<LuaScript,LuaScriptState> luaScripts = new HashMap<>();
     private Logger log = LoggerFactory.getLogger(LuaScriptManager.class);
 
-    public LuaScriptManager(RedisClient redisClient){
-        this.redisClient = redisClient;
+    /**
+     * @param redisClientPool the pool of the connections the scripts are executed on
+     */
+    public LuaScriptManager(RedisClientPool redisClientPool){
+        this.redisClientPool = redisClientPool;
 
-        LuaScriptState luaGetScriptState = new LuaScriptState(LuaScript.CHECK, redisClient);
-        luaGetScriptState.loadLuaScript(new RedisCommandDoNothing(), 0);
-        luaScripts.put(LuaScript.CHECK, luaGetScriptState);
+        for (LuaScript luaScript : LuaScript.values()) {
+            LuaScriptState luaScriptState = new LuaScriptState(luaScript, redisClientPool.get());
+            luaScriptState.loadLuaScript(new RedisCommandDoNothing(), 0);
+            luaScripts.put(luaScript, luaScriptState);
+        }
     }
 
     /**
@@ -44,7 +53,425 @@ public class LuaScriptManager {
                 String.valueOf(System.currentTimeMillis()),
                 String.valueOf(checkInterval)
         );
-        executeRedisCommand(new Check(keys, arguments, redisClient, handler), 0);
+        executeRedisCommand(new Check(keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Verifies that the consumer key of a queue is still owned by the given uid, refreshes its TTL and returns up to
+     * <code>count</code> items from the head of the queue together with the queue length. All in one round trip.
+     * The items are read from the first non-empty lane, the lanes are passed in the order they are served, i.e. the
+     * priority lanes p0 .. pN followed by the default lane.
+     * In reliable mode (<code>processingKey</code> not empty), the items are popped from the lane and stored in the
+     * processing hash of the consumer under the <code>deliveryId</code> until they are acknowledged. The in-flight hash
+     * counts them per queue.
+     *
+     * The result array is <code>[1, length, laneKey, item1, .., itemN]</code> when owned (<code>[1, 0]</code> for an
+     * empty queue, the length is the sum over all lanes)
+     * and <code>[0, currentConsumer]</code> when not owned (currentConsumer is missing when nobody is registered).
+     *
+     * @param consumerKey the redis key holding the registered consumer of the queue
+     * @param laneKeys the redis keys of the lanes of the queue in the order they are served
+     * @param uid the uid of the consumer claiming the queue
+     * @param expireSeconds the TTL to set on the consumer key when owned
+     * @param count the maximum number of items to read from the head of the queue
+     * @param processingKey the redis key of the processing hash of the consumer, empty when not in reliable mode
+     * @param inflightKey the redis key of the hash counting the items in flight per queue
+     * @param deliveryId the id of the delivery in the processing hash
+     * @param queue the name of the queue
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleClaim(String consumerKey, List<String> laneKeys, String uid, int expireSeconds, int count,
+                            String processingKey, String inflightKey, String deliveryId, String queue,
+                            Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = new ArrayList<>(laneKeys.size() + 1);
+        keys.add(consumerKey);
+        keys.addAll(laneKeys);
+        List<String> arguments = Arrays.asList(uid, String.valueOf(expireSeconds), String.valueOf(count),
+                processingKey, deliveryId, queue, inflightKey);
+        executeRedisCommand(new EvalScript(LuaScript.CLAIM, keys, arguments, redisClientPool.get(queue), handler), 0);
+    }
+
+    /**
+     * Handles one chunk of the periodic queue check in redis. Up to <code>chunkSize</code> queues with a timestamp
+     * older than <code>limit</code> are read from the queues sorted set. Non-empty queues get the new timestamp and
+     * the TTL of their consumer key refreshed, empty queues are removed from the sorted set. A queue with items in
+     * flight counts as non-empty.
+     *
+     * The result array is <code>[processedCount, [nonEmptyQueue1, .., nonEmptyQueueN]]</code>. When processedCount is
+     * lower than chunkSize, no inactive queues are left.
+     *
+     * @param queuesKey the redis key of the queues sorted set
+     * @param inflightKey the redis key of the hash counting the items in flight per queue
+     * @param queuesPrefix the prefix of the redis keys of the queue lists
+     * @param consumersPrefix the prefix of the redis keys of the registered consumers
+     * @param limit the timestamp up to which a queue is considered as inactive
+     * @param timestamp the new timestamp of the non-empty queues
+     * @param consumerExpireSeconds the TTL to set on the consumer keys of non-empty queues
+     * @param chunkSize the max number of queues handled
+     * @param priorityLevels the number of priority lanes of the queues, a queue is empty when all its lanes are empty
+     * @param lanesPrefix the prefix of the redis keys of the priority lanes, followed by <code>&lt;level&gt;:&lt;queue&gt;</code>
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleCheckQueues(String queuesKey, String inflightKey, String queuesPrefix, String consumersPrefix, long limit,
+                                  long timestamp, int consumerExpireSeconds, int chunkSize, int priorityLevels, String lanesPrefix,
+                                  Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(queuesKey, inflightKey);
+        List<String> arguments = Arrays.asList(
+                String.valueOf(limit),
+                String.valueOf(timestamp),
+                queuesPrefix,
+                consumersPrefix,
+                String.valueOf(consumerExpireSeconds),
+                String.valueOf(chunkSize),
+                String.valueOf(priorityLevels),
+                lanesPrefix
+        );
+        executeRedisCommand(new EvalScript(LuaScript.CHECK_QUEUES, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Refreshes the registrations of a chunk of queues in redis. For each queue still registered to the consumer
+     * <code>uid</code>, the TTL of the consumer key is extended. The timestamps of all these queues are then updated
+     * with a single ZADD.
+     *
+     * @param queuesKey the redis key of the queues sorted set
+     * @param consumersPrefix the prefix of the redis keys of the registered consumers
+     * @param uid the uid of the consumer refreshing its registrations
+     * @param consumerExpireSeconds the TTL to set on the consumer keys
+     * @param timestamp the new timestamp of the queues
+     * @param queues the queues to refresh
+     * @param handler the handler receiving the queues which are no longer registered to the consumer
+     */
+    public void handleRefreshRegistrations(String queuesKey, String consumersPrefix, String uid, int consumerExpireSeconds,
+                                           long timestamp, List<String> queues, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Collections.singletonList(queuesKey);
+        List<String> arguments = new ArrayList<>(queues.size() + 4);
+        arguments.add(consumersPrefix);
+        arguments.add(uid);
+        arguments.add(String.valueOf(consumerExpireSeconds));
+        arguments.add(String.valueOf(timestamp));
+        arguments.addAll(queues);
+        executeRedisCommand(new EvalScript(LuaScript.REFRESH_REGISTRATIONS, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Deletes the items at the given indexes of a queue. The indexes address the lanes of the queue as one list in the
+     * order they are served. The items are replaced by a tombstone unique to this call, which is then removed with a
+     * single LREM per lane starting from the end of the lane closer to the deleted items.
+     *
+     * The result array is <code>[deletedCount]</code> or <code>[-1, invalidIndex]</code> when an index is out of
+     * range. Nothing is deleted when an index is out of range.
+     *
+     * @param laneKeys the redis keys of the lanes of the queue in the order they are served
+     * @param tombstone the value used to mark the items to delete, must not be a possible queue item
+     * @param indexes the indexes of the items to delete, negative indexes count from the end of the queue
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleDeleteQueueItems(List<String> laneKeys, String tombstone, List<Integer> indexes, Handler<AsyncResult<JsonArray>> handler){
+        List<String> arguments = new ArrayList<>(indexes.size() + 1);
+        arguments.add(tombstone);
+        for (Integer index : indexes) {
+            arguments.add(String.valueOf(index));
+        }
+        executeRedisCommand(new EvalScript(LuaScript.DELETE_QUEUE_ITEMS, laneKeys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Reads a range of items of a queue together with the queue length in one round trip. The lanes of the queue are
+     * read as one list in the order they are served.
+     *
+     * The result array is <code>[length, [item1, .., itemN]]</code>.
+     *
+     * @param laneKeys the redis keys of the lanes of the queue in the order they are served
+     * @param offset the index of the first item to read
+     * @param maxIndex the index of the last item to read
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleGetQueueItems(List<String> laneKeys, int offset, int maxIndex, Handler<AsyncResult<JsonArray>> handler){
+        List<String> arguments = Arrays.asList(String.valueOf(offset), String.valueOf(maxIndex));
+        executeRedisCommand(new EvalScript(LuaScript.GET_QUEUE_ITEMS, laneKeys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Reads or replaces the item at the given index of a queue. The index addresses the lanes of the queue as one list
+     * in the order they are served, negative indexes count from the end of the queue.
+     *
+     * The result array is <code>[1, item]</code> when read, <code>[1]</code> when replaced and <code>[0]</code> when
+     * the index is out of range.
+     *
+     * @param laneKeys the redis keys of the lanes of the queue in the order they are served
+     * @param index the index of the item
+     * @param value the new value of the item, <code>null</code> to read the item
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleQueueItem(List<String> laneKeys, int index, String value, Handler<AsyncResult<JsonArray>> handler){
+        List<String> arguments = value == null ? Collections.singletonList(String.valueOf(index))
+                : Arrays.asList(String.valueOf(index), value);
+        executeRedisCommand(new EvalScript(LuaScript.QUEUE_ITEM, laneKeys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Lists the queues with a timestamp of at least <code>minScore</code> whose name starts with the given prefix.
+     * The names are filtered in redis, so only the requested page of queue names is transferred. The sorted set is
+     * read in windows by rank and only up to the last queue of the page, the count still reads all active queues.
+     *
+     * The result array contains the matching queue names of the page, or <code>[matchingCount]</code> when
+     * <code>countOnly</code> is set.
+     *
+     * @param queuesKey the redis key of the queues sorted set
+     * @param minScore the min timestamp of the listed queues
+     * @param prefix the prefix of the listed queue names
+     * @param offset the number of matching queues to skip
+     * @param limit the max number of queues to list, a negative value lists all
+     * @param countOnly whether to return the number of matching queues instead of their names
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleGetQueues(String queuesKey, long minScore, String prefix, int offset, int limit, boolean countOnly,
+                                Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Collections.singletonList(queuesKey);
+        List<String> arguments = Arrays.asList(String.valueOf(minScore), prefix, String.valueOf(offset),
+                String.valueOf(limit), String.valueOf(countOnly));
+        executeRedisCommand(new EvalScript(LuaScript.GET_QUEUES, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Gathers the statistics of the given queues in one round trip.
+     *
+     * The result array contains five entries per queue: <code>[queue, size, timestamp, consumer, locked]</code>.
+     * The size is the sum over all priority lanes and the items in flight. The timestamp and the consumer are
+     * <code>null</code> when not available, locked is 1 when the queue is locked.
+     *
+     * @param queuesKey the redis key of the queues sorted set
+     * @param locksKey the redis key of the locks hash
+     * @param inflightKey the redis key of the hash counting the items in flight per queue
+     * @param queuesPrefix the prefix of the redis keys of the queue lists
+     * @param consumersPrefix the prefix of the redis keys of the registered consumers
+     * @param priorityLevels the number of priority lanes of the queues
+     * @param lanesPrefix the prefix of the redis keys of the priority lanes, followed by <code>&lt;level&gt;:&lt;queue&gt;</code>
+     * @param queues the queues to gather the statistics from
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleGetQueuesStatistics(String queuesKey, String locksKey, String inflightKey, String queuesPrefix,
+                                          String consumersPrefix, int priorityLevels, String lanesPrefix, List<String> queues,
+                                          Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(queuesKey, locksKey, inflightKey);
+        List<String> arguments = new ArrayList<>(queues.size() + 4);
+        arguments.add(queuesPrefix);
+        arguments.add(consumersPrefix);
+        arguments.add(String.valueOf(priorityLevels));
+        arguments.add(lanesPrefix);
+        arguments.addAll(queues);
+        executeRedisCommand(new EvalScript(LuaScript.GET_QUEUES_STATISTICS, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Counts a failed processing attempt of the head item of a queue. When the attempts reach <code>maxAttempts</code>,
+     * the head item is moved to the dead letter queue and the queue is added to the set of dead letter queues.
+     *
+     * The result array is <code>[moved, attempts]</code>, where moved is 1 when the item was moved. When the head of
+     * the queue is no longer the given item, nothing is moved and the attempts are reset.
+     *
+     * @param attemptsKey the redis key of the hash holding the attempts per queue
+     * @param queueKey the redis key of the queue list
+     * @param deadLetterQueueKey the redis key of the dead letter queue list
+     * @param deadLetterQueuesKey the redis key of the set holding the names of the dead letter queues
+     * @param queue the name of the queue
+     * @param headItem the item which failed to be processed
+     * @param maxAttempts the number of failed attempts after which the item is moved
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleDeadLetter(String attemptsKey, String queueKey, String deadLetterQueueKey, String deadLetterQueuesKey,
+                                 String queue, String headItem, int maxAttempts, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(attemptsKey, queueKey, deadLetterQueueKey, deadLetterQueuesKey);
+        List<String> arguments = Arrays.asList(queue, headItem, String.valueOf(maxAttempts));
+        executeRedisCommand(new EvalScript(LuaScript.DEAD_LETTER, keys, arguments, redisClientPool.get(queue), handler), 0);
+    }
+
+    /**
+     * Appends all items of a dead letter queue to its queue and removes the dead letter queue.
+     *
+     * The result array is <code>[replayedCount]</code>.
+     *
+     * @param deadLetterQueueKey the redis key of the dead letter queue list
+     * @param deadLetterQueuesKey the redis key of the set holding the names of the dead letter queues
+     * @param queueKey the redis key of the queue list
+     * @param queue the name of the queue
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleReplayDeadLetterQueue(String deadLetterQueueKey, String deadLetterQueuesKey, String queueKey,
+                                            String queue, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(deadLetterQueueKey, deadLetterQueuesKey, queueKey);
+        List<String> arguments = Collections.singletonList(queue);
+        executeRedisCommand(new EvalScript(LuaScript.REPLAY_DEAD_LETTER_QUEUE, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Moves up to <code>batchSize</code> due items of the delayed sorted set to the end of their queues and updates
+     * the timestamps of these queues. The move is guarded by a lease so that only one instance moves due items at a
+     * time. The lease is kept as long as further due items are left and released otherwise.
+     *
+     * The result array is <code>[1, movedCount, nextDueTime, queue1, count1, .., queueN, countN]</code> when the
+     * lease is held and <code>[0, 0, nextDueTime]</code> when another instance holds the lease. The nextDueTime is
+     * -1 when no delayed items are left.
+     *
+     * @param delayedKey the redis key of the sorted set holding the delayed items scored by their due time
+     * @param leaseKey the redis key of the mover lease
+     * @param queuesKey the redis key of the queues sorted set
+     * @param queuesPrefix the prefix of the redis keys of the queue lists
+     * @param uid the uid of the instance moving the items
+     * @param leaseMs the time to live of the lease in milliseconds
+     * @param now the current timestamp, items with a due time up to it are moved
+     * @param batchSize the max number of items moved
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleMoveDelayed(String delayedKey, String leaseKey, String queuesKey, String queuesPrefix, String uid,
+                                  long leaseMs, long now, int batchSize, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(delayedKey, leaseKey, queuesKey);
+        List<String> arguments = Arrays.asList(uid, String.valueOf(leaseMs), String.valueOf(now),
+                String.valueOf(batchSize), queuesPrefix);
+        executeRedisCommand(new EvalScript(LuaScript.MOVE_DELAYED, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Gets the number of items of a queue summed over its default lane, its priority lanes and its items in flight.
+     *
+     * The result array is <code>[length]</code>.
+     *
+     * @param inflightKey the redis key of the hash counting the items in flight per queue
+     * @param laneKeys the redis keys of the lanes of the queue
+     * @param queue the name of the queue
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleGetQueueLength(String inflightKey, List<String> laneKeys, String queue, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = new ArrayList<>(laneKeys.size() + 1);
+        keys.add(inflightKey);
+        keys.addAll(laneKeys);
+        List<String> arguments = Collections.singletonList(queue);
+        executeRedisCommand(new EvalScript(LuaScript.GET_QUEUE_LENGTH, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Removes the delivered items from the head of the lane, but only when the head still consists of exactly these
+     * items. This keeps a stale acknowledge from removing items which were never delivered.
+     *
+     * The result array is <code>[1]</code> when the items were removed and <code>[0]</code> when the head differs.
+     *
+     * @param queue the name of the queue
+     * @param laneKey the redis key of the lane the items were read from
+     * @param items the delivered items
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleAck(String queue, String laneKey, List<String> items, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Collections.singletonList(laneKey);
+        executeRedisCommand(new EvalScript(LuaScript.ACK, keys, items, redisClientPool.get(queue), handler), 0);
+    }
+
+    /**
+     * Acknowledges a delivery of the reliable mode. The delivery is removed from the processing hash and its items no
+     * longer count as in flight.
+     *
+     * The result array is <code>[1]</code> when the delivery was removed and <code>[0]</code> when it is no longer in
+     * the processing hash, because it was already acknowledged, returned or recovered.
+     *
+     * @param queue the name of the queue
+     * @param processingKey the redis key of the processing hash of the consumer
+     * @param inflightKey the redis key of the hash counting the items in flight per queue
+     * @param deliveryId the id of the delivery
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleAckDelivery(String queue, String processingKey, String inflightKey, String deliveryId,
+                                  Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(processingKey, inflightKey);
+        List<String> arguments = Collections.singletonList(deliveryId);
+        executeRedisCommand(new EvalScript(LuaScript.ACK_DELIVERY, keys, arguments, redisClientPool.get(queue), handler), 0);
+    }
+
+    /**
+     * Returns the items of a delivery from the processing hash to the head of the lane they were read from, so that
+     * they are delivered again in the same order. The items no longer count as in flight.
+     *
+     * The result array is <code>[1]</code> when the items were returned and <code>[0]</code> when the delivery is no
+     * longer in the processing hash, because it was already acknowledged, returned or recovered.
+     *
+     * @param queue the name of the queue
+     * @param processingKey the redis key of the processing hash of the consumer
+     * @param deliveryId the id of the delivery
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleNack(String queue, String processingKey, String inflightKey, String deliveryId,
+                           Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(processingKey, inflightKey);
+        List<String> arguments = Collections.singletonList(deliveryId);
+        executeRedisCommand(new EvalScript(LuaScript.NACK, keys, arguments, redisClientPool.get(queue), handler), 0);
+    }
+
+    /**
+     * Returns the in-flight items of dead consumers to the head of their lanes. A consumer is dead when its liveness
+     * key has expired. Its processing hash is deleted, the in-flight counts and the timestamps of the recovered queues
+     * are updated.
+     *
+     * The result array contains the names of the recovered queues.
+     *
+     * @param processingConsumersKey the redis key of the set holding the consumers with a processing hash
+     * @param queuesKey the redis key of the queues sorted set
+     * @param inflightKey the redis key of the hash counting the items in flight per queue
+     * @param processingPrefix the prefix of the redis keys of the processing hashes
+     * @param alivePrefix the prefix of the redis keys of the liveness keys
+     * @param timestamp the new timestamp of the recovered queues
+     * @param handler the handler receiving the raw script result
+     */
+    public void handleRecoverProcessing(String processingConsumersKey, String queuesKey, String inflightKey, String processingPrefix,
+                                        String alivePrefix, long timestamp, Handler<AsyncResult<JsonArray>> handler){
+        List<String> keys = Arrays.asList(processingConsumersKey, queuesKey, inflightKey);
+        List<String> arguments = Arrays.asList(processingPrefix, alivePrefix, String.valueOf(timestamp));
+        executeRedisCommand(new EvalScript(LuaScript.RECOVER_PROCESSING, keys, arguments, redisClientPool.get(), handler), 0);
+    }
+
+    /**
+     * Executes a lua script and passes the raw result to the handler. Reloads the script when redis does not know it.
+     */
+    private class EvalScript implements RedisCommand {
+
+        private LuaScript luaScript;
+        private List<String> keys;
+        private List<String> arguments;
+        private Handler<AsyncResult<JsonArray>> handler;
+        private RedisClient redisClient;
+
+        public EvalScript(LuaScript luaScript, List<String> keys, List<String> arguments, RedisClient redisClient, final Handler<AsyncResult<JsonArray>> handler) {
+            this.luaScript = luaScript;
+            this.keys = keys;
+            this.arguments = arguments;
+            this.redisClient = redisClient;
+            this.handler = handler;
+        }
+
+        @Override
+        public void exec(int executionCounter) {
+            redisClient.evalsha(luaScripts.get(luaScript).getSha(), keys, arguments, event -> {
+                if(event.succeeded()){
+                    if (log.isTraceEnabled()) {
+                        log.trace(luaScript + " lua script got result: " + event.result());
+                    }
+                    handler.handle(Future.succeededFuture(event.result()));
+                } else {
+                    String message = event.cause().getMessage();
+                    if(message != null && message.startsWith("NOSCRIPT")) {
+                        log.warn(luaScript + " script couldn't be found, reload it");
+                        log.warn("amount the script got loaded: " + String.valueOf(executionCounter));
+                        if(executionCounter > 10) {
+                            log.error("amount the script got loaded is higher than 10, we abort");
+                            handler.handle(Future.failedFuture(message));
+                        } else {
+                            luaScripts.get(luaScript).loadLuaScript(new EvalScript(luaScript, keys, arguments, redisClient, handler), executionCounter);
+                        }
+                    } else {
+                        log.error(luaScript + " request failed with message: " + message);
+                        handler.handle(Future.failedFuture(message));
+                    }
+                }
+            });
+        }
     }
 
     private class Check implements RedisCommand {
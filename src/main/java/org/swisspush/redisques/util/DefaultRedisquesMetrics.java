@@ -0,0 +1,111 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory {@link RedisquesMetrics} used when no other implementation is provided. The values are aggregated over
+ * all queues to keep the memory bounded, regardless of the number of queues.
+ */
+public class DefaultRedisquesMetrics implements RedisquesMetrics {
+
+    private long enqueued;
+    private long dequeued;
+    private long processorTimeouts;
+    private long reschedules;
+    private long deadLettered;
+    private long staleAcknowledgements;
+    private final Timer processorRoundTrips = new Timer();
+    private final Map<String, Timer> redisOperations = new TreeMap<>();
+    private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+
+    @Override
+    public void enqueued(String queue, int count) {
+        enqueued += count;
+    }
+
+    @Override
+    public void dequeued(String queue, int count) {
+        dequeued += count;
+    }
+
+    @Override
+    public void processorRoundTrip(String queue, long durationMs, boolean success) {
+        processorRoundTrips.update(durationMs, success);
+    }
+
+    @Override
+    public void processorTimeout(String queue) {
+        processorTimeouts++;
+    }
+
+    @Override
+    public void rescheduled(String queue) {
+        reschedules++;
+    }
+
+    @Override
+    public void deadLettered(String queue) {
+        deadLettered++;
+    }
+
+    @Override
+    public void staleAcknowledged(String queue) {
+        staleAcknowledgements++;
+    }
+
+    @Override
+    public void redisOperation(String operation, long durationMs, boolean success) {
+        redisOperations.computeIfAbsent(operation, op -> new Timer()).update(durationMs, success);
+    }
+
+    @Override
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    @Override
+    public JsonObject toJsonObject() {
+        JsonObject redis = new JsonObject();
+        redisOperations.forEach((operation, timer) -> redis.put(operation, timer.toJsonObject()));
+        JsonObject metrics = new JsonObject()
+                .put("enqueued", enqueued)
+                .put("dequeued", dequeued)
+                .put("processorTimeouts", processorTimeouts)
+                .put("reschedules", reschedules)
+                .put("deadLettered", deadLettered)
+                .put("staleAcknowledgements", staleAcknowledgements)
+                .put("processorRoundTrip", processorRoundTrips.toJsonObject())
+                .put("redis", redis);
+        gauges.forEach((name, gauge) -> metrics.put(name, gauge.getAsLong()));
+        return metrics;
+    }
+
+    private static class Timer {
+        private long count;
+        private long failures;
+        private long totalMs;
+        private long maxMs;
+
+        private void update(long durationMs, boolean success) {
+            count++;
+            if (!success) {
+                failures++;
+            }
+            totalMs += durationMs;
+            maxMs = Math.max(maxMs, durationMs);
+        }
+
+        private JsonObject toJsonObject() {
+            return new JsonObject()
+                    .put("count", count)
+                    .put("failures", failures)
+                    .put("meanMs", count > 0 ? totalMs / count : 0)
+                    .put("maxMs", maxMs);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.regex.Pattern;
+
+import static org.swisspush.redisques.util.RedisquesConfiguration.*;
+
+/**
+ * Overrides the processor address, the processor timeout and the retry policy for the queues with names matching a
+ * pattern. Values not set fall back to the global configuration.
+ */
+public class QueueConfiguration {
+
+    public static final String PROP_PATTERN = "pattern";
+
+    private final Pattern pattern;
+    private String processorAddress;
+    private Integer processorTimeout;
+    private Integer retryInitialDelay;
+    private Double retryMultiplier;
+    private Integer retryMaxDelay;
+    private Double retryJitter;
+
+    /**
+     * @param pattern the regular expression the queue names have to match
+     */
+    public QueueConfiguration(String pattern) {
+        this.pattern = Pattern.compile(pattern);
+    }
+
+    public QueueConfiguration processorAddress(String processorAddress) {
+        this.processorAddress = processorAddress;
+        return this;
+    }
+
+    public QueueConfiguration processorTimeout(Integer processorTimeout) {
+        this.processorTimeout = processorTimeout;
+        return this;
+    }
+
+    public QueueConfiguration retryInitialDelay(Integer retryInitialDelay) {
+        this.retryInitialDelay = retryInitialDelay;
+        return this;
+    }
+
+    public QueueConfiguration retryMultiplier(Double retryMultiplier) {
+        this.retryMultiplier = retryMultiplier;
+        return this;
+    }
+
+    public QueueConfiguration retryMaxDelay(Integer retryMaxDelay) {
+        this.retryMaxDelay = retryMaxDelay;
+        return this;
+    }
+
+    public QueueConfiguration retryJitter(Double retryJitter) {
+        this.retryJitter = retryJitter;
+        return this;
+    }
+
+    public boolean matches(String queue) {
+        return pattern.matcher(queue).matches();
+    }
+
+    public String getPattern() { return pattern.pattern(); }
+
+    public String getProcessorAddress() { return processorAddress; }
+
+    public Integer getProcessorTimeout() { return processorTimeout; }
+
+    public Integer getRetryInitialDelay() { return retryInitialDelay; }
+
+    public Double getRetryMultiplier() { return retryMultiplier; }
+
+    public Integer getRetryMaxDelay() { return retryMaxDelay; }
+
+    public Double getRetryJitter() { return retryJitter; }
+
+    public JsonObject asJsonObject() {
+        JsonObject obj = new JsonObject();
+        obj.put(PROP_PATTERN, getPattern());
+        putIfSet(obj, PROP_PROCESSOR_ADDRESS, processorAddress);
+        putIfSet(obj, PROP_PROCESSOR_TIMEOUT, processorTimeout);
+        putIfSet(obj, PROP_RETRY_INITIAL_DELAY, retryInitialDelay);
+        putIfSet(obj, PROP_RETRY_MULTIPLIER, retryMultiplier);
+        putIfSet(obj, PROP_RETRY_MAX_DELAY, retryMaxDelay);
+        putIfSet(obj, PROP_RETRY_JITTER, retryJitter);
+        return obj;
+    }
+
+    public static QueueConfiguration fromJsonObject(JsonObject json) {
+        return new QueueConfiguration(json.getString(PROP_PATTERN))
+                .processorAddress(json.getString(PROP_PROCESSOR_ADDRESS))
+                .processorTimeout(json.getInteger(PROP_PROCESSOR_TIMEOUT))
+                .retryInitialDelay(json.getInteger(PROP_RETRY_INITIAL_DELAY))
+                .retryMultiplier(json.getDouble(PROP_RETRY_MULTIPLIER))
+                .retryMaxDelay(json.getInteger(PROP_RETRY_MAX_DELAY))
+                .retryJitter(json.getDouble(PROP_RETRY_JITTER));
+    }
+
+    private static void putIfSet(JsonObject obj, String key, Object value) {
+        if (value != null) {
+            obj.put(key, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return asJsonObject().toString();
+    }
+}
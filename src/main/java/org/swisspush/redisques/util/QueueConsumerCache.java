@@ -0,0 +1,85 @@
+package org.swisspush.redisques.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded local cache of the queue to consumer mappings stored in redis. Entries expire after a fixed time to live,
+ * the least recently used entries are evicted when the max size is reached.
+ */
+public class QueueConsumerCache {
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param maxSize the max number of cached queues
+     * @param ttlMs the time to live of an entry in milliseconds. A value of 0 or less disables the cache.
+     */
+    public QueueConsumerCache(int maxSize, long ttlMs) {
+        this(maxSize, ttlMs, System::currentTimeMillis);
+    }
+
+    QueueConsumerCache(int maxSize, long ttlMs, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > QueueConsumerCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && ttlMs > 0;
+    }
+
+    /**
+     * @param queue the name of the queue
+     * @return the cached consumer of the queue or <code>null</code> when not cached or expired
+     */
+    public String get(String queue) {
+        Entry entry = entries.get(queue);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(queue);
+            return null;
+        }
+        return entry.consumer;
+    }
+
+    public void put(String queue, String consumer) {
+        if (isEnabled()) {
+            entries.put(queue, new Entry(consumer, clock.getAsLong() + ttlMs));
+        }
+    }
+
+    public void invalidate(String queue) {
+        entries.remove(queue);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final String consumer;
+        private final long expiresAt;
+
+        private Entry(String consumer, long expiresAt) {
+            this.consumer = consumer;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
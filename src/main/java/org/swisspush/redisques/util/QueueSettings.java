@@ -0,0 +1,94 @@
+package org.swisspush.redisques.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the processor address, the processor timeout and the retry policy of queues. The first
+ * {@link QueueConfiguration} matching a queue name overrides the global configuration. The resolved settings are
+ * cached per queue, so the patterns are only evaluated once per queue.
+ */
+public class QueueSettings {
+
+    private static final int MAX_CACHED_QUEUES = 10000;
+
+    private final Settings defaults;
+    private final List<QueueConfiguration> queueConfigurations;
+    private final RedisquesConfiguration config;
+    private final Map<String, Settings> resolved = new LinkedHashMap<String, Settings>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Settings> eldest) {
+            return size() > MAX_CACHED_QUEUES;
+        }
+    };
+
+    public QueueSettings(RedisquesConfiguration config) {
+        this.config = config;
+        this.queueConfigurations = config.getQueueConfigurations();
+        this.defaults = new Settings(config.getProcessorAddress(), config.getProcessorTimeout(), retryPolicy(null));
+    }
+
+    public String getProcessorAddress(String queue) {
+        return get(queue).processorAddress;
+    }
+
+    public int getProcessorTimeout(String queue) {
+        return get(queue).processorTimeout;
+    }
+
+    public RetryPolicy getRetryPolicy(String queue) {
+        return get(queue).retryPolicy;
+    }
+
+    private Settings get(String queue) {
+        if (queueConfigurations.isEmpty()) {
+            return defaults;
+        }
+        return resolved.computeIfAbsent(queue, this::resolve);
+    }
+
+    private Settings resolve(String queue) {
+        for (QueueConfiguration queueConfiguration : queueConfigurations) {
+            if (queueConfiguration.matches(queue)) {
+                return new Settings(
+                        valueOrDefault(queueConfiguration.getProcessorAddress(), defaults.processorAddress),
+                        valueOrDefault(queueConfiguration.getProcessorTimeout(), defaults.processorTimeout),
+                        retryPolicy(queueConfiguration));
+            }
+        }
+        return defaults;
+    }
+
+    private RetryPolicy retryPolicy(QueueConfiguration queueConfiguration) {
+        int initialDelay = config.getRetryInitialDelay();
+        double multiplier = config.getRetryMultiplier();
+        int maxDelay = config.getRetryMaxDelay();
+        double jitter = config.getRetryJitter();
+        if (queueConfiguration != null) {
+            initialDelay = valueOrDefault(queueConfiguration.getRetryInitialDelay(), initialDelay);
+            multiplier = valueOrDefault(queueConfiguration.getRetryMultiplier(), multiplier);
+            maxDelay = valueOrDefault(queueConfiguration.getRetryMaxDelay(), maxDelay);
+            jitter = valueOrDefault(queueConfiguration.getRetryJitter(), jitter);
+        }
+        // an initial delay of 0 retries after the refresh period
+        long initialDelayMs = initialDelay > 0 ? initialDelay : config.getRefreshPeriod() * 1000L;
+        return new RetryPolicy(initialDelayMs, multiplier, maxDelay, jitter);
+    }
+
+    private static <T> T valueOrDefault(T value, T defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static class Settings {
+        private final String processorAddress;
+        private final int processorTimeout;
+        private final RetryPolicy retryPolicy;
+
+        private Settings(String processorAddress, int processorTimeout, RetryPolicy retryPolicy) {
+            this.processorAddress = processorAddress;
+            this.processorTimeout = processorTimeout;
+            this.retryPolicy = retryPolicy;
+        }
+    }
+}
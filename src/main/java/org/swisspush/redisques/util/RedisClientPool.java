@@ -0,0 +1,66 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.redis.RedisClient;
+import io.vertx.redis.RedisOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed size pool of redis clients. Each client holds its own connection, so a large reply on one connection does not
+ * delay the commands sent over the other connections. Commands whose order does not matter get the clients in round
+ * robin, the commands of a queue are pinned to one client by the queue name, so that redis executes them in the order
+ * they were sent.
+ */
+public class RedisClientPool {
+
+    private final List<RedisClient> clients;
+    private int next;
+
+    /**
+     * @param vertx the vertx instance
+     * @param options the options of the redis connections
+     * @param size the number of connections
+     */
+    public RedisClientPool(Vertx vertx, RedisOptions options, int size) {
+        clients = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            clients.add(RedisClient.create(vertx, options));
+        }
+    }
+
+    RedisClientPool(List<RedisClient> clients) {
+        this.clients = new ArrayList<>(clients);
+    }
+
+    /**
+     * @return the next client of the pool in round robin
+     */
+    public RedisClient get() {
+        RedisClient client = clients.get(next);
+        next = (next + 1) % clients.size();
+        return client;
+    }
+
+    /**
+     * @param key the key the command is pinned to, e.g. the name of a queue
+     * @return the client all commands for the key are sent over
+     */
+    public RedisClient get(String key) {
+        return clients.get((key.hashCode() & Integer.MAX_VALUE) % clients.size());
+    }
+
+    /**
+     * @return the number of connections of the pool
+     */
+    public int size() {
+        return clients.size();
+    }
+
+    public void close() {
+        for (RedisClient client : clients) {
+            client.close(event -> {});
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.swisspush.redisques.util;
+
+/**
+ * Builds the redis keys of the queues and their bookkeeping.
+ *
+ * Without shards, the keys are laid out as they always were, a single sorted set indexes all queues. With shards,
+ * every queue is assigned to a shard by its name and all keys of a shard carry the shard as hash tag, e.g.
+ * <code>redisques:queues:{3}:myQueue</code> and the shard's index <code>redisques:queues:{3}</code>. All keys touched
+ * by a lua script then hash to the same redis cluster slot, while the shards spread the queues over the cluster.
+ */
+public class RedisKeyLayout {
+
+    // the queue and lock keys of the single slot layout never used the configured prefix, kept for existing data
+    private static final String LEGACY_QUEUES_PREFIX = "redisques:queues:";
+    private static final String LEGACY_LOCKS = "redisques:locks";
+
+    private final String redisPrefix;
+    private final int shards;
+
+    /**
+     * @param redisPrefix the prefix of the redis keys
+     * @param shards the number of hash tagged shards, 0 for the single slot layout
+     */
+    public RedisKeyLayout(String redisPrefix, int shards) {
+        this.redisPrefix = redisPrefix;
+        this.shards = shards;
+    }
+
+    public boolean isSharded() {
+        return shards > 0;
+    }
+
+    /**
+     * @return the number of shards to iterate, 1 for the single slot layout
+     */
+    public int getShards() {
+        return isSharded() ? shards : 1;
+    }
+
+    /**
+     * @param queue the name of the queue
+     * @return the shard holding the keys of the queue
+     */
+    public int shardOf(String queue) {
+        return isSharded() ? (queue.hashCode() & Integer.MAX_VALUE) % shards : 0;
+    }
+
+    private String tag(int shard) {
+        return isSharded() ? ":{" + shard + "}" : "";
+    }
+
+    /**
+     * @return the sorted set indexing the queues of the shard by their last update
+     */
+    public String queuesKey(int shard) {
+        return redisPrefix + "queues" + tag(shard);
+    }
+
+    public String queuesPrefix(int shard) {
+        return isSharded() ? queuesKey(shard) + ":" : LEGACY_QUEUES_PREFIX;
+    }
+
+    /**
+     * @return the list of the default lane of the queue
+     */
+    public String queueKey(String queue) {
+        return queuesPrefix(shardOf(queue)) + queue;
+    }
+
+    /**
+     * @return the prefix of the priority lanes of the shard, followed by <code>&lt;level&gt;:&lt;queue&gt;</code>
+     */
+    public String lanesPrefix(int shard) {
+        return redisPrefix + "lanes" + tag(shard) + ":";
+    }
+
+    /**
+     * The priority lanes live outside of the queue keys, so that no queue name can address the lane of another queue.
+     *
+     * @return the list of the priority lane of the queue
+     */
+    public String laneKey(String queue, int level) {
+        return lanesPrefix(shardOf(queue)) + level + ":" + queue;
+    }
+
+    public String consumersPrefix(int shard) {
+        return redisPrefix + "consumers" + tag(shard) + ":";
+    }
+
+    public String consumerKey(String queue) {
+        return consumersPrefix(shardOf(queue)) + queue;
+    }
+
+    /**
+     * @return the pattern matching the consumer keys of all shards
+     */
+    public String consumersPattern() {
+        return redisPrefix + "consumers:*";
+    }
+
+    public String locksKey(int shard) {
+        return (isSharded() ? redisPrefix + "locks" : LEGACY_LOCKS) + tag(shard);
+    }
+
+    public String locksKey(String queue) {
+        return locksKey(shardOf(queue));
+    }
+
+    public String attemptsKey(String queue) {
+        return redisPrefix + "attempts" + tag(shardOf(queue));
+    }
+
+    public String deadLetterQueuesKey(int shard) {
+        return redisPrefix + "dlqs" + tag(shard);
+    }
+
+    public String deadLetterQueueKey(String queue) {
+        return redisPrefix + "dlq" + tag(shardOf(queue)) + ":" + queue;
+    }
+
+    public String delayedKey(int shard) {
+        return redisPrefix + "delayed" + tag(shard);
+    }
+
+    public String delayedLeaseKey(int shard) {
+        return delayedKey(shard) + ":lease";
+    }
+
+    public String processingPrefix(int shard) {
+        return redisPrefix + "processing" + tag(shard) + ":";
+    }
+
+    /**
+     * @return the hash holding the items in flight of the consumer taken from queues of the shard
+     */
+    public String processingKey(int shard, String uid) {
+        return processingPrefix(shard) + uid;
+    }
+
+    public String processingConsumersKey(int shard) {
+        return processingPrefix(shard) + "consumers";
+    }
+
+    /**
+     * @return the hash counting the items in flight of the reliable mode per queue of the shard
+     */
+    public String inflightKey(int shard) {
+        return redisPrefix + "inflight" + tag(shard);
+    }
+
+    public String inflightKey(String queue) {
+        return inflightKey(shardOf(queue));
+    }
+
+    public String alivePrefix(int shard) {
+        return processingPrefix(shard) + "alive:";
+    }
+}
@@ -1,9 +1,14 @@
 package org.swisspush.redisques.util;
 
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Class RedisquesAPI listing the operations and response values which are supported in Redisques.
  *
@@ -12,14 +17,29 @@ import io.vertx.core.logging.LoggerFactory;
 public class RedisquesAPI {
     public static final String OK = "ok";
     public static final String INFO = "info";
+    public static final String COUNT = "count";
+    public static final String NAME = "name";
+    public static final String SIZE = "size";
+    public static final String QUEUES = "queues";
+    public static final String LOCKED = "locked";
+    public static final String CONSUMER = "consumer";
     public static final String INDEX = "index";
+    public static final String INDEXES = "indexes";
+    public static final String ITERATIONS = "iterations";
     public static final String LIMIT = "limit";
+    public static final String OFFSET = "offset";
+    public static final String DELAY = "delay";
+    public static final String PRIORITY = "priority";
+    public static final String PREFIX = "prefix";
     public static final String VALUE = "value";
     public static final String ERROR = "error";
     public static final String BUFFER = "buffer";
     public static final String STATUS = "status";
     public static final String MESSAGE = "message";
+    public static final String MESSAGES = "messages";
     public static final String PAYLOAD = "payload";
+    public static final String PAYLOADS = "payloads";
+    public static final String DELIVERY_ID = "deliveryId";
     public static final String QUEUENAME = "queuename";
     public static final String OPERATION = "operation";
     public static final String REQUESTED_BY = "requestedBy";
@@ -29,6 +49,8 @@ public class RedisquesAPI {
 
     public enum QueueOperation {
         enqueue(null),
+        bulkEnqueue(null),
+        enqueueDelayed(null),
         check(null),
         reset(null),
         stop(null),
@@ -44,7 +66,13 @@ public class RedisquesAPI {
         deleteLock(null),
         getQueues(null),
         getQueuesCount(null),
-        getQueueItemsCount(null);
+        getQueueItemsCount(null),
+        getQueuesStatistics(null),
+        getMetrics(null),
+        getDeadLetterQueues(null),
+        getDeadLetterQueueItems(null),
+        replayDeadLetterQueue(null),
+        deleteDeadLetterQueue(null);
 
         private final String legacyName;
 
@@ -89,16 +117,50 @@ public class RedisquesAPI {
         return buildOperation(QueueOperation.check);
     }
 
+    public static JsonObject buildResetOperation(){
+        return buildOperation(QueueOperation.reset);
+    }
+
     public static JsonObject buildEnqueueOperation(String queueName, String message){
         JsonObject operation = buildOperation(QueueOperation.enqueue, new JsonObject().put(QUEUENAME, queueName));
         operation.put(MESSAGE, message);
         return operation;
     }
 
+    public static JsonObject buildEnqueueOperation(String queueName, String message, int priority){
+        JsonObject operation = buildOperation(QueueOperation.enqueue, new JsonObject().put(QUEUENAME, queueName).put(PRIORITY, priority));
+        operation.put(MESSAGE, message);
+        return operation;
+    }
+
+    public static JsonObject buildEnqueueDelayedOperation(String queueName, String message, long delayMs){
+        JsonObject operation = buildOperation(QueueOperation.enqueueDelayed, new JsonObject().put(QUEUENAME, queueName).put(DELAY, delayMs));
+        operation.put(MESSAGE, message);
+        return operation;
+    }
+
+    public static JsonObject buildBulkEnqueueOperation(String queueName, List<String> messages){
+        return buildBulkEnqueueOperation(Collections.singletonMap(queueName, messages));
+    }
+
+    public static JsonObject buildBulkEnqueueOperation(Map<String, List<String>> queueMessages){
+        JsonArray messages = new JsonArray();
+        for (Map.Entry<String, List<String>> entry : queueMessages.entrySet()) {
+            for (String message : entry.getValue()) {
+                messages.add(new JsonObject().put(QUEUENAME, entry.getKey()).put(MESSAGE, message));
+            }
+        }
+        return buildOperation(QueueOperation.bulkEnqueue, new JsonObject().put(MESSAGES, messages));
+    }
+
     public static JsonObject buildGetQueueItemsOperation(String queueName, String limit){
         return buildOperation(QueueOperation.getQueueItems, new JsonObject().put(QUEUENAME, queueName).put("limit", limit));
     }
 
+    public static JsonObject buildGetQueueItemsOperation(String queueName, int offset, String limit){
+        return buildOperation(QueueOperation.getQueueItems, new JsonObject().put(QUEUENAME, queueName).put(OFFSET, offset).put(LIMIT, limit));
+    }
+
     public static JsonObject buildAddQueueItemOperation(String queueName, String buffer){
         return buildOperation(QueueOperation.addQueueItem, new JsonObject().put(QUEUENAME, queueName).put("buffer", buffer));
     }
@@ -115,6 +177,10 @@ public class RedisquesAPI {
         return buildOperation(QueueOperation.deleteQueueItem, new JsonObject().put(QUEUENAME, queueName).put("index", index));
     }
 
+    public static JsonObject buildDeleteQueueItemOperation(String queueName, List<Integer> indexes){
+        return buildOperation(QueueOperation.deleteQueueItem, new JsonObject().put(QUEUENAME, queueName).put(INDEXES, new JsonArray(indexes)));
+    }
+
     public static JsonObject buildDeleteAllQueueItemsOperation(String queueName){
         return buildOperation(QueueOperation.deleteAllQueueItems, new JsonObject().put(QUEUENAME, queueName));
     }
@@ -123,10 +189,50 @@ public class RedisquesAPI {
         return buildOperation(QueueOperation.getQueues);
     }
 
+    public static JsonObject buildGetQueuesOperation(int offset, int limit){
+        return buildOperation(QueueOperation.getQueues, new JsonObject().put(OFFSET, offset).put(LIMIT, limit));
+    }
+
+    public static JsonObject buildGetQueuesOperation(String prefix, int offset, int limit){
+        return buildOperation(QueueOperation.getQueues, new JsonObject().put(PREFIX, prefix).put(OFFSET, offset).put(LIMIT, limit));
+    }
+
+    public static JsonObject buildGetQueuesStatisticsOperation(List<String> queues){
+        return buildOperation(QueueOperation.getQueuesStatistics, new JsonObject().put(QUEUES, new JsonArray(queues)));
+    }
+
+    public static JsonObject buildGetQueuesStatisticsOperation(int offset, int limit){
+        return buildOperation(QueueOperation.getQueuesStatistics, new JsonObject().put(OFFSET, offset).put(LIMIT, limit));
+    }
+
+    public static JsonObject buildGetDeadLetterQueuesOperation(){
+        return buildOperation(QueueOperation.getDeadLetterQueues);
+    }
+
+    public static JsonObject buildGetDeadLetterQueueItemsOperation(String queueName, int offset, String limit){
+        return buildOperation(QueueOperation.getDeadLetterQueueItems, new JsonObject().put(QUEUENAME, queueName).put(OFFSET, offset).put(LIMIT, limit));
+    }
+
+    public static JsonObject buildReplayDeadLetterQueueOperation(String queueName){
+        return buildOperation(QueueOperation.replayDeadLetterQueue, new JsonObject().put(QUEUENAME, queueName));
+    }
+
+    public static JsonObject buildDeleteDeadLetterQueueOperation(String queueName){
+        return buildOperation(QueueOperation.deleteDeadLetterQueue, new JsonObject().put(QUEUENAME, queueName));
+    }
+
+    public static JsonObject buildGetMetricsOperation(){
+        return buildOperation(QueueOperation.getMetrics);
+    }
+
     public static JsonObject buildGetQueuesCountOperation(){
         return buildOperation(QueueOperation.getQueuesCount);
     }
 
+    public static JsonObject buildGetQueuesCountOperation(String prefix){
+        return buildOperation(QueueOperation.getQueuesCount, new JsonObject().put(PREFIX, prefix));
+    }
+
     public static JsonObject buildGetQueueItemsCountOperation(String queueName){
         return buildOperation(QueueOperation.getQueueItemsCount, new JsonObject().put(QUEUENAME, queueName));
     }
@@ -1,9 +1,15 @@
 package org.swisspush.redisques.util;
 
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
 /**
  * Utility class to configure the Redisques module.
  *
@@ -19,8 +25,44 @@ public class RedisquesConfiguration {
     private String redisEncoding;
     private int checkInterval;
     private int processorTimeout;
+    private int prefetchCount = DEFAULT_PREFETCH_COUNT;
+    private String prefetchQueuesPattern;
+    private int consumerCacheSize = DEFAULT_CONSUMER_CACHE_SIZE;
+    private int consumerCacheTtl = DEFAULT_CONSUMER_CACHE_TTL;
+    private int checkQueuesPageSize = DEFAULT_CHECK_QUEUES_PAGE_SIZE;
+    private int timestampFlushInterval = DEFAULT_TIMESTAMP_FLUSH_INTERVAL;
+    private int retryInitialDelay = DEFAULT_RETRY_INITIAL_DELAY;
+    private double retryMultiplier = DEFAULT_RETRY_MULTIPLIER;
+    private int retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+    private double retryJitter = DEFAULT_RETRY_JITTER;
+    private List<QueueConfiguration> queueConfigurations = Collections.emptyList();
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private int delayedPollInterval = DEFAULT_DELAYED_POLL_INTERVAL;
+    private int priorityLevels = DEFAULT_PRIORITY_LEVELS;
+    private boolean reliableMode = DEFAULT_RELIABLE_MODE;
+    private int redisPoolSize = DEFAULT_REDIS_POOL_SIZE;
+    private int redisHousekeepingPoolSize = DEFAULT_REDIS_HOUSEKEEPING_POOL_SIZE;
+    private int redisAdminPoolSize = DEFAULT_REDIS_ADMIN_POOL_SIZE;
+    private int clusterShards = DEFAULT_CLUSTER_SHARDS;
 
     private static final int DEFAULT_CHECK_INTERVAL = 60; // 60s
+    private static final int DEFAULT_PREFETCH_COUNT = 1;
+    private static final int DEFAULT_CONSUMER_CACHE_SIZE = 10000;
+    private static final int DEFAULT_CONSUMER_CACHE_TTL = 5;
+    private static final int DEFAULT_CHECK_QUEUES_PAGE_SIZE = 500;
+    private static final int DEFAULT_TIMESTAMP_FLUSH_INTERVAL = 0;
+    private static final int DEFAULT_RETRY_INITIAL_DELAY = 0;
+    private static final double DEFAULT_RETRY_MULTIPLIER = 1.0;
+    private static final int DEFAULT_RETRY_MAX_DELAY = 300000;
+    private static final double DEFAULT_RETRY_JITTER = 0.0;
+    private static final int DEFAULT_MAX_ATTEMPTS = 0;
+    private static final int DEFAULT_DELAYED_POLL_INTERVAL = 5000;
+    private static final int DEFAULT_PRIORITY_LEVELS = 0;
+    private static final boolean DEFAULT_RELIABLE_MODE = false;
+    private static final int DEFAULT_REDIS_POOL_SIZE = 1;
+    private static final int DEFAULT_REDIS_HOUSEKEEPING_POOL_SIZE = 1;
+    private static final int DEFAULT_REDIS_ADMIN_POOL_SIZE = 1;
+    private static final int DEFAULT_CLUSTER_SHARDS = 0;
 
     public static final String PROP_ADDRESS = "address";
     public static final String PROP_REDIS_PREFIX = "redis-prefix";
@@ -31,6 +73,25 @@ public class RedisquesConfiguration {
     public static final String PROP_REDIS_ENCODING = "redisEncoding";
     public static final String PROP_CHECK_INTERVAL = "checkInterval";
     public static final String PROP_PROCESSOR_TIMEOUT = "processorTimeout";
+    public static final String PROP_PREFETCH_COUNT = "prefetchCount";
+    public static final String PROP_PREFETCH_QUEUES_PATTERN = "prefetchQueuesPattern";
+    public static final String PROP_CONSUMER_CACHE_SIZE = "consumerCacheSize";
+    public static final String PROP_CONSUMER_CACHE_TTL = "consumerCacheTtl";
+    public static final String PROP_CHECK_QUEUES_PAGE_SIZE = "checkQueuesPageSize";
+    public static final String PROP_TIMESTAMP_FLUSH_INTERVAL = "timestampFlushInterval";
+    public static final String PROP_RETRY_INITIAL_DELAY = "retryInitialDelay";
+    public static final String PROP_RETRY_MULTIPLIER = "retryMultiplier";
+    public static final String PROP_RETRY_MAX_DELAY = "retryMaxDelay";
+    public static final String PROP_RETRY_JITTER = "retryJitter";
+    public static final String PROP_QUEUE_CONFIGURATIONS = "queueConfigurations";
+    public static final String PROP_MAX_ATTEMPTS = "maxAttempts";
+    public static final String PROP_DELAYED_POLL_INTERVAL = "delayedPollInterval";
+    public static final String PROP_PRIORITY_LEVELS = "priorityLevels";
+    public static final String PROP_RELIABLE_MODE = "reliableMode";
+    public static final String PROP_REDIS_POOL_SIZE = "redisPoolSize";
+    public static final String PROP_REDIS_HOUSEKEEPING_POOL_SIZE = "redisHousekeepingPoolSize";
+    public static final String PROP_REDIS_ADMIN_POOL_SIZE = "redisAdminPoolSize";
+    public static final String PROP_CLUSTER_SHARDS = "clusterShards";
 
     private Logger log = LoggerFactory.getLogger(RedisquesConfiguration.class);
 
@@ -74,6 +135,90 @@ public class RedisquesConfiguration {
     private RedisquesConfiguration(RedisquesConfigurationBuilder builder){
         this(builder.address, builder.redisPrefix, builder.processorAddress, builder.refreshPeriod,
                 builder.redisHost, builder.redisPort, builder.redisEncoding, builder.checkInterval, builder.processorTimeout);
+
+        if(builder.prefetchCount > 0){
+            this.prefetchCount = builder.prefetchCount;
+        } else {
+            log.warn("Overriden prefetchCount of " + builder.prefetchCount + " is not valid. Using default value of " + DEFAULT_PREFETCH_COUNT + " instead.");
+        }
+        this.prefetchQueuesPattern = builder.prefetchQueuesPattern;
+        if(builder.consumerCacheSize >= 0){
+            this.consumerCacheSize = builder.consumerCacheSize;
+        } else {
+            log.warn("Overriden consumerCacheSize of " + builder.consumerCacheSize + " is not valid. Using default value of " + DEFAULT_CONSUMER_CACHE_SIZE + " instead.");
+        }
+        if(builder.consumerCacheTtl >= 0){
+            this.consumerCacheTtl = builder.consumerCacheTtl;
+        } else {
+            log.warn("Overriden consumerCacheTtl of " + builder.consumerCacheTtl + " is not valid. Using default value of " + DEFAULT_CONSUMER_CACHE_TTL + " instead.");
+        }
+        if(builder.checkQueuesPageSize > 0){
+            this.checkQueuesPageSize = builder.checkQueuesPageSize;
+        } else {
+            log.warn("Overriden checkQueuesPageSize of " + builder.checkQueuesPageSize + " is not valid. Using default value of " + DEFAULT_CHECK_QUEUES_PAGE_SIZE + " instead.");
+        }
+        if(builder.timestampFlushInterval >= 0){
+            this.timestampFlushInterval = builder.timestampFlushInterval;
+        } else {
+            log.warn("Overriden timestampFlushInterval of " + builder.timestampFlushInterval + " is not valid. Using default value of " + DEFAULT_TIMESTAMP_FLUSH_INTERVAL + " instead.");
+        }
+        if(builder.retryInitialDelay >= 0){
+            this.retryInitialDelay = builder.retryInitialDelay;
+        } else {
+            log.warn("Overriden retryInitialDelay of " + builder.retryInitialDelay + " is not valid. Using default value of " + DEFAULT_RETRY_INITIAL_DELAY + " instead.");
+        }
+        if(builder.retryMultiplier >= 1.0){
+            this.retryMultiplier = builder.retryMultiplier;
+        } else {
+            log.warn("Overriden retryMultiplier of " + builder.retryMultiplier + " is not valid. Using default value of " + DEFAULT_RETRY_MULTIPLIER + " instead.");
+        }
+        if(builder.retryMaxDelay > 0){
+            this.retryMaxDelay = builder.retryMaxDelay;
+        } else {
+            log.warn("Overriden retryMaxDelay of " + builder.retryMaxDelay + " is not valid. Using default value of " + DEFAULT_RETRY_MAX_DELAY + " instead.");
+        }
+        if(builder.retryJitter >= 0.0 && builder.retryJitter <= 1.0){
+            this.retryJitter = builder.retryJitter;
+        } else {
+            log.warn("Overriden retryJitter of " + builder.retryJitter + " is not valid. Using default value of " + DEFAULT_RETRY_JITTER + " instead.");
+        }
+        this.queueConfigurations = Collections.unmodifiableList(new ArrayList<>(builder.queueConfigurations));
+        if(builder.maxAttempts >= 0){
+            this.maxAttempts = builder.maxAttempts;
+        } else {
+            log.warn("Overriden maxAttempts of " + builder.maxAttempts + " is not valid. Using default value of " + DEFAULT_MAX_ATTEMPTS + " instead.");
+        }
+        if(builder.delayedPollInterval > 0){
+            this.delayedPollInterval = builder.delayedPollInterval;
+        } else {
+            log.warn("Overriden delayedPollInterval of " + builder.delayedPollInterval + " is not valid. Using default value of " + DEFAULT_DELAYED_POLL_INTERVAL + " instead.");
+        }
+        if(builder.priorityLevels >= 0){
+            this.priorityLevels = builder.priorityLevels;
+        } else {
+            log.warn("Overriden priorityLevels of " + builder.priorityLevels + " is not valid. Using default value of " + DEFAULT_PRIORITY_LEVELS + " instead.");
+        }
+        this.reliableMode = builder.reliableMode;
+        if(builder.redisPoolSize > 0){
+            this.redisPoolSize = builder.redisPoolSize;
+        } else {
+            log.warn("Overriden redisPoolSize of " + builder.redisPoolSize + " is not valid. Using default value of " + DEFAULT_REDIS_POOL_SIZE + " instead.");
+        }
+        if(builder.redisHousekeepingPoolSize > 0){
+            this.redisHousekeepingPoolSize = builder.redisHousekeepingPoolSize;
+        } else {
+            log.warn("Overriden redisHousekeepingPoolSize of " + builder.redisHousekeepingPoolSize + " is not valid. Using default value of " + DEFAULT_REDIS_HOUSEKEEPING_POOL_SIZE + " instead.");
+        }
+        if(builder.redisAdminPoolSize > 0){
+            this.redisAdminPoolSize = builder.redisAdminPoolSize;
+        } else {
+            log.warn("Overriden redisAdminPoolSize of " + builder.redisAdminPoolSize + " is not valid. Using default value of " + DEFAULT_REDIS_ADMIN_POOL_SIZE + " instead.");
+        }
+        if(builder.clusterShards >= 0){
+            this.clusterShards = builder.clusterShards;
+        } else {
+            log.warn("Overriden clusterShards of " + builder.clusterShards + " is not valid. Using default value of " + DEFAULT_CLUSTER_SHARDS + " instead.");
+        }
     }
 
     public JsonObject asJsonObject(){
@@ -87,6 +232,29 @@ public class RedisquesConfiguration {
         obj.put(PROP_REDIS_ENCODING, getRedisEncoding());
         obj.put(PROP_CHECK_INTERVAL, getCheckInterval());
         obj.put(PROP_PROCESSOR_TIMEOUT, getProcessorTimeout());
+        obj.put(PROP_PREFETCH_COUNT, getPrefetchCount());
+        obj.put(PROP_PREFETCH_QUEUES_PATTERN, getPrefetchQueuesPattern());
+        obj.put(PROP_CONSUMER_CACHE_SIZE, getConsumerCacheSize());
+        obj.put(PROP_CONSUMER_CACHE_TTL, getConsumerCacheTtl());
+        obj.put(PROP_CHECK_QUEUES_PAGE_SIZE, getCheckQueuesPageSize());
+        obj.put(PROP_TIMESTAMP_FLUSH_INTERVAL, getTimestampFlushInterval());
+        obj.put(PROP_RETRY_INITIAL_DELAY, getRetryInitialDelay());
+        obj.put(PROP_RETRY_MULTIPLIER, getRetryMultiplier());
+        obj.put(PROP_RETRY_MAX_DELAY, getRetryMaxDelay());
+        obj.put(PROP_RETRY_JITTER, getRetryJitter());
+        JsonArray queueConfigurationsArray = new JsonArray();
+        for (QueueConfiguration queueConfiguration : getQueueConfigurations()) {
+            queueConfigurationsArray.add(queueConfiguration.asJsonObject());
+        }
+        obj.put(PROP_QUEUE_CONFIGURATIONS, queueConfigurationsArray);
+        obj.put(PROP_MAX_ATTEMPTS, getMaxAttempts());
+        obj.put(PROP_DELAYED_POLL_INTERVAL, getDelayedPollInterval());
+        obj.put(PROP_PRIORITY_LEVELS, getPriorityLevels());
+        obj.put(PROP_RELIABLE_MODE, isReliableMode());
+        obj.put(PROP_REDIS_POOL_SIZE, getRedisPoolSize());
+        obj.put(PROP_REDIS_HOUSEKEEPING_POOL_SIZE, getRedisHousekeepingPoolSize());
+        obj.put(PROP_REDIS_ADMIN_POOL_SIZE, getRedisAdminPoolSize());
+        obj.put(PROP_CLUSTER_SHARDS, getClusterShards());
         return obj;
     }
 
@@ -119,6 +287,71 @@ public class RedisquesConfiguration {
         if(json.containsKey(PROP_PROCESSOR_TIMEOUT)){
             builder.processorTimeout(json.getInteger(PROP_PROCESSOR_TIMEOUT));
         }
+        if(json.containsKey(PROP_PREFETCH_COUNT)){
+            builder.prefetchCount(json.getInteger(PROP_PREFETCH_COUNT));
+        }
+        if(json.containsKey(PROP_PREFETCH_QUEUES_PATTERN)){
+            builder.prefetchQueuesPattern(json.getString(PROP_PREFETCH_QUEUES_PATTERN));
+        }
+        if(json.containsKey(PROP_CONSUMER_CACHE_SIZE)){
+            builder.consumerCacheSize(json.getInteger(PROP_CONSUMER_CACHE_SIZE));
+        }
+        if(json.containsKey(PROP_CONSUMER_CACHE_TTL)){
+            builder.consumerCacheTtl(json.getInteger(PROP_CONSUMER_CACHE_TTL));
+        }
+        if(json.containsKey(PROP_CHECK_QUEUES_PAGE_SIZE)){
+            builder.checkQueuesPageSize(json.getInteger(PROP_CHECK_QUEUES_PAGE_SIZE));
+        }
+        if(json.containsKey(PROP_TIMESTAMP_FLUSH_INTERVAL)){
+            builder.timestampFlushInterval(json.getInteger(PROP_TIMESTAMP_FLUSH_INTERVAL));
+        }
+        if(json.containsKey(PROP_RETRY_INITIAL_DELAY)){
+            builder.retryInitialDelay(json.getInteger(PROP_RETRY_INITIAL_DELAY));
+        }
+        if(json.containsKey(PROP_RETRY_MULTIPLIER)){
+            builder.retryMultiplier(json.getDouble(PROP_RETRY_MULTIPLIER));
+        }
+        if(json.containsKey(PROP_RETRY_MAX_DELAY)){
+            builder.retryMaxDelay(json.getInteger(PROP_RETRY_MAX_DELAY));
+        }
+        if(json.containsKey(PROP_RETRY_JITTER)){
+            builder.retryJitter(json.getDouble(PROP_RETRY_JITTER));
+        }
+        if(json.containsKey(PROP_QUEUE_CONFIGURATIONS)){
+            List<QueueConfiguration> queueConfigurations = new ArrayList<>();
+            for (Object queueConfiguration : json.getJsonArray(PROP_QUEUE_CONFIGURATIONS)) {
+                try {
+                    queueConfigurations.add(QueueConfiguration.fromJsonObject((JsonObject) queueConfiguration));
+                } catch (PatternSyntaxException | NullPointerException ex) {
+                    LoggerFactory.getLogger(RedisquesConfiguration.class).warn("Ignoring queue configuration " + queueConfiguration + " without valid pattern");
+                }
+            }
+            builder.queueConfigurations(queueConfigurations);
+        }
+        if(json.containsKey(PROP_MAX_ATTEMPTS)){
+            builder.maxAttempts(json.getInteger(PROP_MAX_ATTEMPTS));
+        }
+        if(json.containsKey(PROP_DELAYED_POLL_INTERVAL)){
+            builder.delayedPollInterval(json.getInteger(PROP_DELAYED_POLL_INTERVAL));
+        }
+        if(json.containsKey(PROP_PRIORITY_LEVELS)){
+            builder.priorityLevels(json.getInteger(PROP_PRIORITY_LEVELS));
+        }
+        if(json.containsKey(PROP_RELIABLE_MODE)){
+            builder.reliableMode(json.getBoolean(PROP_RELIABLE_MODE));
+        }
+        if(json.containsKey(PROP_REDIS_POOL_SIZE)){
+            builder.redisPoolSize(json.getInteger(PROP_REDIS_POOL_SIZE));
+        }
+        if(json.containsKey(PROP_REDIS_HOUSEKEEPING_POOL_SIZE)){
+            builder.redisHousekeepingPoolSize(json.getInteger(PROP_REDIS_HOUSEKEEPING_POOL_SIZE));
+        }
+        if(json.containsKey(PROP_REDIS_ADMIN_POOL_SIZE)){
+            builder.redisAdminPoolSize(json.getInteger(PROP_REDIS_ADMIN_POOL_SIZE));
+        }
+        if(json.containsKey(PROP_CLUSTER_SHARDS)){
+            builder.clusterShards(json.getInteger(PROP_CLUSTER_SHARDS));
+        }
         return builder.build();
     }
 
@@ -148,6 +381,20 @@ public class RedisquesConfiguration {
 
     public int getProcessorTimeout() { return processorTimeout; }
 
+    /**
+     * Gets the maximum number of items delivered to the processor in one batch for queues matching
+     * {@link RedisquesConfiguration#getPrefetchQueuesPattern()}.
+     * @return the prefetch count
+     */
+    public int getPrefetchCount() { return prefetchCount; }
+
+    /**
+     * Gets the regex pattern of the queue names for which prefetching is enabled. When <code>null</code>, every queue
+     * is consumed one message at a time.
+     * @return the prefetch queues pattern or <code>null</code>
+     */
+    public String getPrefetchQueuesPattern() { return prefetchQueuesPattern; }
+
     /**
      * Gets the value for the vertx periodic timer.
      * This value is half of {@link RedisquesConfiguration#getCheckInterval()} in ms plus an additional 500ms.
@@ -157,6 +404,117 @@ public class RedisquesConfiguration {
         return ((checkInterval * 1000) / 2) + 500;
     }
 
+    /**
+     * Gets the max number of queue to consumer mappings cached locally to avoid the consumer lookup in redis on enqueue.
+     * @return the consumer cache size
+     */
+    public int getConsumerCacheSize() { return consumerCacheSize; }
+
+    /**
+     * Gets the time to live [s] of the locally cached queue to consumer mappings. A value of 0 disables the cache.
+     * @return the consumer cache ttl
+     */
+    public int getConsumerCacheTtl() { return consumerCacheTtl; }
+
+    /**
+     * Gets the max number of queues handled at once by the <b>check</b> queue operation. The inactive queues are
+     * checked in chunks of this size by a lua script, so a single script call does not block redis for long.
+     * @return the check queues page size
+     */
+    public int getCheckQueuesPageSize() { return checkQueuesPageSize; }
+
+    /**
+     * Gets the interval [ms] in which the timestamps of the queues being processed are written to redis. With a value
+     * of 0 each timestamp update is written immediately. Enqueueing always writes the timestamp immediately.
+     * @return the timestamp flush interval
+     */
+    public int getTimestampFlushInterval() { return timestampFlushInterval; }
+
+    /**
+     * Gets the delay [ms] before the first retry after a failed processing of a queue. With a value of 0, the
+     * refresh period is used.
+     * @return the retry initial delay
+     */
+    public int getRetryInitialDelay() { return retryInitialDelay; }
+
+    /**
+     * Gets the factor by which the retry delay grows with each consecutive failed processing of a queue.
+     * @return the retry multiplier
+     */
+    public double getRetryMultiplier() { return retryMultiplier; }
+
+    /**
+     * Gets the max delay [ms] between retries of a failed processing of a queue.
+     * @return the retry max delay
+     */
+    public int getRetryMaxDelay() { return retryMaxDelay; }
+
+    /**
+     * Gets the max fraction by which a retry delay is randomly shortened, to spread the retries of failed queues.
+     * @return the retry jitter
+     */
+    public double getRetryJitter() { return retryJitter; }
+
+    /**
+     * Gets the overrides of the processor address, the processor timeout and the retry policy for queues matching a
+     * pattern. The first matching queue configuration is used.
+     * @return the queue configurations
+     */
+    public List<QueueConfiguration> getQueueConfigurations() { return queueConfigurations; }
+
+    /**
+     * Gets the number of failed processing attempts after which the head item of a queue is moved to the dead letter
+     * queue. With a value of 0, failed items are retried forever.
+     * @return the max attempts
+     */
+    public int getMaxAttempts() { return maxAttempts; }
+
+    /**
+     * Gets the interval [ms] in which due delayed items are moved to their queues in case no local timer is set
+     * for them, e.g. after a restart or when they were enqueued on another instance.
+     * @return the delayed poll interval
+     */
+    public int getDelayedPollInterval() { return delayedPollInterval; }
+
+    /**
+     * Gets the number of priority lanes of each queue. Messages enqueued with a priority are consumed before the
+     * messages without priority, lower priorities first. With a value of 0, priorities are not supported.
+     * @return the number of priority levels
+     */
+    public int getPriorityLevels() { return priorityLevels; }
+
+    /**
+     * Gets whether the items in flight are moved to a processing hash of the consumer until the processor replies.
+     * Items of dead consumers are returned to their queues by the queue check.
+     * @return true when the reliable mode is enabled
+     */
+    public boolean isReliableMode() { return reliableMode; }
+
+    /**
+     * Gets the number of redis connections used to enqueue and consume messages.
+     * @return the redis pool size
+     */
+    public int getRedisPoolSize() { return redisPoolSize; }
+
+    /**
+     * Gets the number of redis connections used for the periodic housekeeping.
+     * @return the redis housekeeping pool size
+     */
+    public int getRedisHousekeepingPoolSize() { return redisHousekeepingPoolSize; }
+
+    /**
+     * Gets the number of redis connections used for the admin operations.
+     * @return the redis admin pool size
+     */
+    public int getRedisAdminPoolSize() { return redisAdminPoolSize; }
+
+    /**
+     * Gets the number of hash tagged shards of the redis cluster key layout. With a value of 0, the single slot
+     * layout is used.
+     * @return the number of cluster shards
+     */
+    public int getClusterShards() { return clusterShards; }
+
     public String getRedisEncoding() {
         return redisEncoding;
     }
@@ -187,6 +545,25 @@ public class RedisquesConfiguration {
         private String redisEncoding;
         private int checkInterval;
         private int processorTimeout;
+        private int prefetchCount;
+        private String prefetchQueuesPattern;
+        private int consumerCacheSize;
+        private int consumerCacheTtl;
+        private int checkQueuesPageSize;
+        private int timestampFlushInterval;
+        private int retryInitialDelay;
+        private double retryMultiplier;
+        private int retryMaxDelay;
+        private double retryJitter;
+        private List<QueueConfiguration> queueConfigurations;
+        private int maxAttempts;
+        private int delayedPollInterval;
+        private int priorityLevels;
+        private boolean reliableMode;
+        private int redisPoolSize;
+        private int redisHousekeepingPoolSize;
+        private int redisAdminPoolSize;
+        private int clusterShards;
 
         public RedisquesConfigurationBuilder(){
             this.address = "redisques";
@@ -198,6 +575,25 @@ public class RedisquesConfiguration {
             this.redisEncoding = "UTF-8";
             this.checkInterval = DEFAULT_CHECK_INTERVAL; //60s
             this.processorTimeout = 240000;
+            this.prefetchCount = DEFAULT_PREFETCH_COUNT;
+            this.prefetchQueuesPattern = null;
+            this.consumerCacheSize = DEFAULT_CONSUMER_CACHE_SIZE;
+            this.consumerCacheTtl = DEFAULT_CONSUMER_CACHE_TTL;
+            this.checkQueuesPageSize = DEFAULT_CHECK_QUEUES_PAGE_SIZE;
+            this.timestampFlushInterval = DEFAULT_TIMESTAMP_FLUSH_INTERVAL;
+            this.retryInitialDelay = DEFAULT_RETRY_INITIAL_DELAY;
+            this.retryMultiplier = DEFAULT_RETRY_MULTIPLIER;
+            this.retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+            this.retryJitter = DEFAULT_RETRY_JITTER;
+            this.queueConfigurations = Collections.emptyList();
+            this.maxAttempts = DEFAULT_MAX_ATTEMPTS;
+            this.delayedPollInterval = DEFAULT_DELAYED_POLL_INTERVAL;
+            this.priorityLevels = DEFAULT_PRIORITY_LEVELS;
+            this.reliableMode = DEFAULT_RELIABLE_MODE;
+            this.redisPoolSize = DEFAULT_REDIS_POOL_SIZE;
+            this.redisHousekeepingPoolSize = DEFAULT_REDIS_HOUSEKEEPING_POOL_SIZE;
+            this.redisAdminPoolSize = DEFAULT_REDIS_ADMIN_POOL_SIZE;
+            this.clusterShards = DEFAULT_CLUSTER_SHARDS;
         }
 
         public RedisquesConfigurationBuilder address(String address){
@@ -245,6 +641,101 @@ public class RedisquesConfiguration {
             return this;
         }
 
+        public RedisquesConfigurationBuilder prefetchCount(int prefetchCount){
+            this.prefetchCount = prefetchCount;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder prefetchQueuesPattern(String prefetchQueuesPattern){
+            this.prefetchQueuesPattern = prefetchQueuesPattern;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder consumerCacheSize(int consumerCacheSize){
+            this.consumerCacheSize = consumerCacheSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder consumerCacheTtl(int consumerCacheTtl){
+            this.consumerCacheTtl = consumerCacheTtl;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder checkQueuesPageSize(int checkQueuesPageSize){
+            this.checkQueuesPageSize = checkQueuesPageSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder timestampFlushInterval(int timestampFlushInterval){
+            this.timestampFlushInterval = timestampFlushInterval;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder retryInitialDelay(int retryInitialDelay){
+            this.retryInitialDelay = retryInitialDelay;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder retryMultiplier(double retryMultiplier){
+            this.retryMultiplier = retryMultiplier;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder retryMaxDelay(int retryMaxDelay){
+            this.retryMaxDelay = retryMaxDelay;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder retryJitter(double retryJitter){
+            this.retryJitter = retryJitter;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder queueConfigurations(List<QueueConfiguration> queueConfigurations){
+            this.queueConfigurations = queueConfigurations;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder maxAttempts(int maxAttempts){
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder delayedPollInterval(int delayedPollInterval){
+            this.delayedPollInterval = delayedPollInterval;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder priorityLevels(int priorityLevels){
+            this.priorityLevels = priorityLevels;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder reliableMode(boolean reliableMode){
+            this.reliableMode = reliableMode;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder redisPoolSize(int redisPoolSize){
+            this.redisPoolSize = redisPoolSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder redisHousekeepingPoolSize(int redisHousekeepingPoolSize){
+            this.redisHousekeepingPoolSize = redisHousekeepingPoolSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder redisAdminPoolSize(int redisAdminPoolSize){
+            this.redisAdminPoolSize = redisAdminPoolSize;
+            return this;
+        }
+
+        public RedisquesConfigurationBuilder clusterShards(int clusterShards){
+            this.clusterShards = clusterShards;
+            return this;
+        }
+
         public RedisquesConfiguration build(){
             return new RedisquesConfiguration(this);
         }
@@ -0,0 +1,74 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Receives the metrics of a redisques instance. Implementations can forward the values to a metrics registry
+ * (e.g. Dropwizard or Micrometer), the queue names allow to tag the values per queue.
+ *
+ * The methods are called from the event loop of the redisques verticle and must not block.
+ */
+public interface RedisquesMetrics {
+
+    /**
+     * @param queue the name of the queue
+     * @param count the number of messages enqueued
+     */
+    void enqueued(String queue, int count);
+
+    /**
+     * @param queue the name of the queue
+     * @param count the number of messages successfully processed and removed from the queue
+     */
+    void dequeued(String queue, int count);
+
+    /**
+     * @param queue the name of the queue
+     * @param durationMs the time from sending the message to the processor until its reply
+     * @param success whether the processor replied with status ok
+     */
+    void processorRoundTrip(String queue, long durationMs, boolean success);
+
+    /**
+     * @param queue the name of the queue whose processor did not reply in time
+     */
+    void processorTimeout(String queue);
+
+    /**
+     * @param queue the name of the queue rescheduled after a processing failure
+     */
+    void rescheduled(String queue);
+
+    /**
+     * @param queue the name of the queue whose head item was moved to the dead letter queue
+     */
+    void deadLettered(String queue);
+
+    /**
+     * @param queue the name of the queue whose processor replied to a delivery which was already timed out or
+     *              acknowledged, or whose head no longer matched the delivered items
+     */
+    void staleAcknowledged(String queue);
+
+    /**
+     * @param operation the type of the redis operation (command or lua script)
+     * @param durationMs the time from sending the operation until its result
+     * @param success whether the operation succeeded
+     */
+    void redisOperation(String operation, long durationMs, boolean success);
+
+    /**
+     * Registers a value which is read when the metrics are reported.
+     *
+     * @param name the name of the gauge
+     * @param gauge the supplier of the current value
+     */
+    void registerGauge(String name, LongSupplier gauge);
+
+    /**
+     * @return a snapshot of the metrics, returned by the <b>getMetrics</b> operation
+     */
+    JsonObject toJsonObject();
+}
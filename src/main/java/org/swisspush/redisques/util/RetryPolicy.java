@@ -0,0 +1,50 @@
+package org.swisspush.redisques.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Calculates the delay before retrying a failed processing of a queue. The delay grows exponentially with the number
+ * of consecutive failures up to a max delay. A jitter shortens each delay randomly, so that queues failing at the same
+ * time do not retry in lockstep.
+ */
+public class RetryPolicy {
+
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final long maxDelayMs;
+    private final double jitter;
+
+    /**
+     * @param initialDelayMs the delay before the first retry
+     * @param multiplier the factor by which the delay grows with each consecutive failure
+     * @param maxDelayMs the max delay
+     * @param jitter the max fraction (between 0 and 1) by which a delay is randomly shortened
+     */
+    public RetryPolicy(long initialDelayMs, double multiplier, long maxDelayMs, double jitter) {
+        this.initialDelayMs = initialDelayMs;
+        this.multiplier = multiplier;
+        this.maxDelayMs = maxDelayMs;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @param failures the number of consecutive failures, starting with 1
+     * @return the delay [ms] before the next retry
+     */
+    public long getDelayMs(int failures) {
+        return getDelayMs(failures, ThreadLocalRandom.current().nextDouble());
+    }
+
+    long getDelayMs(int failures, double random) {
+        double delay = initialDelayMs * Math.pow(multiplier, Math.max(failures - 1, 0));
+        delay = Math.min(delay, maxDelayMs);
+        delay = delay * (1.0 - jitter * random);
+        return Math.max(1L, (long) delay);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{initialDelayMs=" + initialDelayMs + ", multiplier=" + multiplier +
+                ", maxDelayMs=" + maxDelayMs + ", jitter=" + jitter + "}";
+    }
+}
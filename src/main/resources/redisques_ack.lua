@@ -0,0 +1,14 @@
+local laneKey = KEYS[1]
+
+local head = redis.call('lrange',laneKey,0,#ARGV-1)
+if #head ~= #ARGV then
+    return 0
+end
+for i = 1, #ARGV do
+    if head[i] ~= ARGV[i] then
+        return 0
+    end
+end
+
+redis.call('ltrim',laneKey,#ARGV,-1)
+return 1
@@ -0,0 +1,15 @@
+local processingKey = KEYS[1]
+local inflightKey = KEYS[2]
+local deliveryId = ARGV[1]
+
+local entry = redis.call('hget',processingKey,deliveryId)
+if not entry then
+    return 0
+end
+
+local delivery = cjson.decode(entry)
+redis.call('hdel',processingKey,deliveryId)
+if redis.call('hincrby',inflightKey,delivery.queue,-#delivery.items) <= 0 then
+    redis.call('hdel',inflightKey,delivery.queue)
+end
+return 1
@@ -0,0 +1,37 @@
+local queuesKey = KEYS[1]
+local inflightKey = KEYS[2]
+local limit = ARGV[1]
+local timestamp = tonumber(ARGV[2])
+local queuesPrefix = ARGV[3]
+local consumersPrefix = ARGV[4]
+local consumerExpireSeconds = tonumber(ARGV[5])
+local chunkSize = tonumber(ARGV[6])
+local priorityLevels = tonumber(ARGV[7])
+local lanesPrefix = ARGV[8]
+
+local function exists(queue)
+    if redis.call('exists',queuesPrefix..queue) == 1 or redis.call('hexists',inflightKey,queue) == 1 then
+        return true
+    end
+    for level = 0, priorityLevels - 1 do
+        if redis.call('exists',lanesPrefix..level..':'..queue) == 1 then
+            return true
+        end
+    end
+    return false
+end
+
+local queues = redis.call('zrangebyscore',queuesKey,'-inf',limit,'LIMIT',0,chunkSize)
+local nonEmptyQueues = {}
+
+for _, queue in ipairs(queues) do
+    if exists(queue) then
+        redis.call('zadd',queuesKey,timestamp,queue)
+        redis.call('expire',consumersPrefix..queue,consumerExpireSeconds)
+        table.insert(nonEmptyQueues, queue)
+    else
+        redis.call('zrem',queuesKey,queue)
+    end
+end
+
+return {#queues, nonEmptyQueues}
@@ -0,0 +1,60 @@
+local consumerKey = KEYS[1]
+local uid = ARGV[1]
+local expireSeconds = tonumber(ARGV[2])
+local count = tonumber(ARGV[3])
+local processingKey = ARGV[4]
+local deliveryId = ARGV[5]
+local queue = ARGV[6]
+local inflightKey = ARGV[7]
+
+local consumer = redis.call('get',consumerKey)
+if consumer ~= uid then
+    if consumer then
+        return {0, consumer}
+    end
+    return {0}
+end
+
+redis.call('expire',consumerKey,expireSeconds)
+
+-- the lanes are passed in the order they are served, the priority lanes p0 (highest) .. pN before the default lane
+local lanes = {}
+for i = 2, #KEYS do
+    table.insert(lanes, KEYS[i])
+end
+
+local length = 0
+local headLane
+for _, lane in ipairs(lanes) do
+    local laneLength = redis.call('llen',lane)
+    if laneLength > 0 and not headLane then
+        headLane = lane
+    end
+    length = length + laneLength
+end
+if length == 0 then
+    return {1, 0}
+end
+
+local result = {1, length, headLane}
+if processingKey == '' then
+    for _, item in ipairs(redis.call('lrange',headLane,0,count-1)) do
+        table.insert(result, item)
+    end
+    return result
+end
+
+-- reliable mode: the items are moved to the processing hash of the consumer until they are acknowledged, the in-flight
+-- hash counts them per queue, so that the queue still counts as non-empty
+local items = {}
+for _ = 1, count do
+    local item = redis.call('lpop',headLane)
+    if not item then
+        break
+    end
+    table.insert(items, item)
+    table.insert(result, item)
+end
+redis.call('hset',processingKey,deliveryId,cjson.encode({queue=queue, lane=headLane, items=items}))
+redis.call('hincrby',inflightKey,queue,#items)
+return result
@@ -0,0 +1,23 @@
+local attemptsKey = KEYS[1]
+local queueKey = KEYS[2]
+local deadLetterQueueKey = KEYS[3]
+local deadLetterQueuesKey = KEYS[4]
+local queue = ARGV[1]
+local headItem = ARGV[2]
+local maxAttempts = tonumber(ARGV[3])
+
+-- the head changed meanwhile, the attempts belong to another item
+if redis.call('lindex',queueKey,0) ~= headItem then
+    redis.call('hdel',attemptsKey,queue)
+    return {0, 0}
+end
+
+local attempts = redis.call('hincrby',attemptsKey,queue,1)
+if attempts < maxAttempts then
+    return {0, attempts}
+end
+
+redis.call('rpush',deadLetterQueueKey,redis.call('lpop',queueKey))
+redis.call('sadd',deadLetterQueuesKey,queue)
+redis.call('hdel',attemptsKey,queue)
+return {1, attempts}
@@ -0,0 +1,59 @@
+local tombstone = ARGV[1]
+
+-- the lanes are passed in the order they are served, the indexes address them as one queue
+local lengths = {}
+local length = 0
+for i, laneKey in ipairs(KEYS) do
+    lengths[i] = redis.call('llen',laneKey)
+    length = length + lengths[i]
+end
+
+local indexes = {}
+local seen = {}
+
+for i = 2, #ARGV do
+    local index = tonumber(ARGV[i])
+    if index == nil or index >= length or index < -length then
+        return {-1, ARGV[i]}
+    end
+    if index < 0 then
+        index = length + index
+    end
+    if not seen[index] then
+        seen[index] = true
+        table.insert(indexes, index)
+    end
+end
+
+if #indexes == 0 then
+    return {0}
+end
+
+local deleted = 0
+local first = 0
+for i, laneKey in ipairs(KEYS) do
+    local laneLength = lengths[i]
+    local count = 0
+    local minIndex = laneLength
+    local maxIndex = -1
+    for _, index in ipairs(indexes) do
+        local laneIndex = index - first
+        if laneIndex >= 0 and laneIndex < laneLength then
+            redis.call('lset',laneKey,laneIndex,tombstone)
+            count = count + 1
+            minIndex = math.min(minIndex, laneIndex)
+            maxIndex = math.max(maxIndex, laneIndex)
+        end
+    end
+    -- remove the tombstones scanning from the end of the lane closer to them
+    if count > 0 then
+        if maxIndex < laneLength - minIndex then
+            deleted = deleted + redis.call('lrem',laneKey,count,tombstone)
+        else
+            deleted = deleted + redis.call('lrem',laneKey,-count,tombstone)
+        end
+    end
+    first = first + laneLength
+end
+
+return {deleted}
@@ -0,0 +1,19 @@
+local offset = tonumber(ARGV[1])
+local maxIndex = tonumber(ARGV[2])
+
+-- the lanes are passed in the order they are served, their items are listed as one queue
+local length = 0
+local items = {}
+for _, laneKey in ipairs(KEYS) do
+    local laneLength = redis.call('llen',laneKey)
+    if maxIndex >= length and offset < length + laneLength then
+        local first = math.max(offset - length, 0)
+        local last = math.min(maxIndex - length, laneLength - 1)
+        for _, item in ipairs(redis.call('lrange',laneKey,first,last)) do
+            table.insert(items, item)
+        end
+    end
+    length = length + laneLength
+end
+
+return {length, items}
@@ -0,0 +1,10 @@
+local inflightKey = KEYS[1]
+local queue = ARGV[1]
+
+-- the items in flight of the reliable mode still belong to the queue
+local length = tonumber(redis.call('hget',inflightKey,queue) or 0)
+for i = 2, #KEYS do
+    length = length + redis.call('llen',KEYS[i])
+end
+
+return {length}
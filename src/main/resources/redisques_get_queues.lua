@@ -0,0 +1,41 @@
+local queuesKey = KEYS[1]
+local minScore = ARGV[1]
+local prefix = ARGV[2]
+local offset = tonumber(ARGV[3])
+local limit = tonumber(ARGV[4])
+local countOnly = ARGV[5] == 'true'
+local windowSize = 1000
+
+if not countOnly and limit == 0 then
+    return {}
+end
+
+-- the queues with a timestamp of at least minScore hold the ranks from first on. They are read in windows, so that a
+-- page stops reading at its last queue instead of loading the whole sorted set
+local first = redis.call('zcount',queuesKey,'-inf','('..minScore)
+local matching = 0
+local result = {}
+
+while true do
+    local window = redis.call('zrange',queuesKey,first,first + windowSize - 1)
+    for _, queue in ipairs(window) do
+        if string.sub(queue,1,#prefix) == prefix then
+            matching = matching + 1
+            if not countOnly and matching > offset then
+                table.insert(result, queue)
+                if limit >= 0 and #result >= limit then
+                    return result
+                end
+            end
+        end
+    end
+    if #window < windowSize then
+        break
+    end
+    first = first + windowSize
+end
+
+if countOnly then
+    return {matching}
+end
+return result
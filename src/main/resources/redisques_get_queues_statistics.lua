@@ -0,0 +1,24 @@
+local queuesKey = KEYS[1]
+local locksKey = KEYS[2]
+local inflightKey = KEYS[3]
+local queuesPrefix = ARGV[1]
+local consumersPrefix = ARGV[2]
+local priorityLevels = tonumber(ARGV[3])
+local lanesPrefix = ARGV[4]
+
+local result = {}
+
+for i = 5, #ARGV do
+    local queue = ARGV[i]
+    local size = redis.call('llen',queuesPrefix..queue) + tonumber(redis.call('hget',inflightKey,queue) or 0)
+    for level = 0, priorityLevels - 1 do
+        size = size + redis.call('llen',lanesPrefix..level..':'..queue)
+    end
+    table.insert(result, queue)
+    table.insert(result, size)
+    table.insert(result, redis.call('zscore',queuesKey,queue))
+    table.insert(result, redis.call('get',consumersPrefix..queue))
+    table.insert(result, redis.call('hexists',locksKey,queue))
+end
+
+return result
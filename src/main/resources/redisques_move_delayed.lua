@@ -0,0 +1,51 @@
+local delayedKey = KEYS[1]
+local leaseKey = KEYS[2]
+local queuesKey = KEYS[3]
+local uid = ARGV[1]
+local leaseMs = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+local batchSize = tonumber(ARGV[4])
+local queuesPrefix = ARGV[5]
+
+local function nextDue()
+    local next = redis.call('zrange',delayedKey,0,0,'WITHSCORES')
+    if #next == 0 then
+        return -1
+    end
+    return tonumber(next[2])
+end
+
+if not redis.call('set',leaseKey,uid,'NX','PX',leaseMs) then
+    if redis.call('get',leaseKey) ~= uid then
+        return {0, 0, nextDue()}
+    end
+    redis.call('pexpire',leaseKey,leaseMs)
+end
+
+local items = redis.call('zrangebyscore',delayedKey,'-inf',now,'LIMIT',0,batchSize)
+local counts = {}
+local queues = {}
+for _, member in ipairs(items) do
+    local item = cjson.decode(member)
+    redis.call('rpush',queuesPrefix..item.queue,item.message)
+    if not counts[item.queue] then
+        counts[item.queue] = 0
+        table.insert(queues, item.queue)
+    end
+    counts[item.queue] = counts[item.queue] + 1
+end
+if #items > 0 then
+    redis.call('zrem',delayedKey,unpack(items))
+end
+
+local result = {1, #items, nextDue()}
+for _, queue in ipairs(queues) do
+    redis.call('zadd',queuesKey,now,queue)
+    table.insert(result, queue)
+    table.insert(result, counts[queue])
+end
+
+if #items < batchSize then
+    redis.call('del',leaseKey)
+end
+return result
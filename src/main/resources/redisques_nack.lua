@@ -0,0 +1,18 @@
+local processingKey = KEYS[1]
+local inflightKey = KEYS[2]
+local deliveryId = ARGV[1]
+
+local entry = redis.call('hget',processingKey,deliveryId)
+if not entry then
+    return 0
+end
+
+local delivery = cjson.decode(entry)
+for i = #delivery.items, 1, -1 do
+    redis.call('lpush',delivery.lane,delivery.items[i])
+end
+redis.call('hdel',processingKey,deliveryId)
+if redis.call('hincrby',inflightKey,delivery.queue,-#delivery.items) <= 0 then
+    redis.call('hdel',inflightKey,delivery.queue)
+end
+return 1
@@ -0,0 +1,28 @@
+local index = tonumber(ARGV[1])
+local value = ARGV[2]
+
+-- the lanes are passed in the order they are served, the index addresses them as one queue
+local lengths = {}
+local length = 0
+for i, laneKey in ipairs(KEYS) do
+    lengths[i] = redis.call('llen',laneKey)
+    length = length + lengths[i]
+end
+
+if index < 0 then
+    index = length + index
+end
+if index < 0 or index >= length then
+    return {0}
+end
+
+for i, laneKey in ipairs(KEYS) do
+    if index < lengths[i] then
+        if value then
+            redis.call('lset',laneKey,index,value)
+            return {1}
+        end
+        return {1, redis.call('lindex',laneKey,index)}
+    end
+    index = index - lengths[i]
+end
@@ -0,0 +1,29 @@
+local processingConsumersKey = KEYS[1]
+local queuesKey = KEYS[2]
+local inflightKey = KEYS[3]
+local processingPrefix = ARGV[1]
+local alivePrefix = ARGV[2]
+local timestamp = tonumber(ARGV[3])
+
+local recoveredQueues = {}
+
+for _, consumer in ipairs(redis.call('smembers',processingConsumersKey)) do
+    if redis.call('exists',alivePrefix..consumer) == 0 then
+        local processingKey = processingPrefix..consumer
+        for _, entry in ipairs(redis.call('hvals',processingKey)) do
+            local delivery = cjson.decode(entry)
+            for i = #delivery.items, 1, -1 do
+                redis.call('lpush',delivery.lane,delivery.items[i])
+            end
+            if redis.call('hincrby',inflightKey,delivery.queue,-#delivery.items) <= 0 then
+                redis.call('hdel',inflightKey,delivery.queue)
+            end
+            redis.call('zadd',queuesKey,timestamp,delivery.queue)
+            table.insert(recoveredQueues, delivery.queue)
+        end
+        redis.call('del',processingKey)
+        redis.call('srem',processingConsumersKey,consumer)
+    end
+end
+
+return recoveredQueues
@@ -0,0 +1,26 @@
+local queuesKey = KEYS[1]
+local consumersPrefix = ARGV[1]
+local uid = ARGV[2]
+local expireSeconds = tonumber(ARGV[3])
+local timestamp = tonumber(ARGV[4])
+
+local ownedQueues = {}
+local notOwnedQueues = {}
+
+for i = 5, #ARGV do
+    local queue = ARGV[i]
+    local consumerKey = consumersPrefix..queue
+    if redis.call('get',consumerKey) == uid then
+        redis.call('expire',consumerKey,expireSeconds)
+        table.insert(ownedQueues, timestamp)
+        table.insert(ownedQueues, queue)
+    else
+        table.insert(notOwnedQueues, queue)
+    end
+end
+
+if #ownedQueues > 0 then
+    redis.call('zadd',queuesKey,unpack(ownedQueues))
+end
+
+return notOwnedQueues
@@ -0,0 +1,12 @@
+local deadLetterQueueKey = KEYS[1]
+local deadLetterQueuesKey = KEYS[2]
+local queueKey = KEYS[3]
+local queue = ARGV[1]
+
+local items = redis.call('lrange',deadLetterQueueKey,0,-1)
+for i = 1, #items, 1000 do
+    redis.call('rpush',queueKey,unpack(items,i,math.min(i + 999, #items)))
+end
+redis.call('del',deadLetterQueueKey)
+redis.call('srem',deadLetterQueuesKey,queue)
+return {#items}
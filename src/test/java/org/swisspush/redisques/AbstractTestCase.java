@@ -5,6 +5,7 @@ import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.junit.AfterClass;
@@ -47,6 +48,10 @@ public abstract class AbstractTestCase {
 
     @AfterClass
     public static void stopRedis(TestContext context) {
+        // stops the redisques instance of the test, so that it does not consume the messages of the following tests
+        Async async = context.async();
+        vertx.close(event -> async.complete());
+        async.awaitSuccess();
         if(!RedisEmbeddedConfiguration.useExternalRedis()) {
             RedisEmbeddedConfiguration.redisServer.stop();
         }
@@ -0,0 +1,160 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.RedisKeyLayout;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+public class RedisQuesClusterLayoutTest extends AbstractTestCase {
+
+    private static final int SHARDS = 4;
+
+    private final RedisKeyLayout keys = new RedisKeyLayout("redisques:", SHARDS);
+
+    @Rule
+    public Timeout rule = Timeout.seconds(20);
+
+    @BeforeClass
+    public static void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress("processor-address")
+                .redisEncoding("ISO-8859-1")
+                .refreshPeriod(2)
+                .priorityLevels(1)
+                .clusterShards(SHARDS)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void enqueueAndConsumeAcrossShards(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final Set<String> processed = new HashSet<>();
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            processed.add(message.body().getString("queue") + "/" + message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+        for (int i = 0; i < 8; i++) {
+            eventBusSend(buildEnqueueOperation("cluster-queue" + i, "a"), null);
+            eventBusSend(buildEnqueueOperation("cluster-queue" + i, "b", 0), null);
+        }
+        vertx.setTimer(1500, timerId -> {
+            context.assertEquals(16, processed.size());
+            for (int i = 0; i < 8; i++) {
+                String queue = "cluster-queue" + i;
+                context.assertTrue(processed.contains(queue + "/b"));
+                context.assertNotNull(jedis.zscore(keys.queuesKey(keys.shardOf(queue)), queue));
+                context.assertEquals(0L, jedis.llen(keys.queueKey(queue)));
+            }
+            context.assertFalse(jedis.exists("redisques:queues"));
+            context.assertTrue(jedis.keys("redisques:consumers:*").stream().allMatch(key -> key.contains(":{")));
+            queueProcessor.unregister();
+            async.complete();
+        });
+    }
+
+    @Test
+    public void getQueuesAndStatisticsAcrossShards(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            String queue = "stats-queue" + i;
+            for (int item = 0; item <= i; item++) {
+                jedis.rpush(keys.queueKey(queue), "item" + item);
+            }
+            jedis.zadd(keys.queuesKey(keys.shardOf(queue)), now, queue);
+        }
+        jedis.zadd(keys.queuesKey(keys.shardOf("other")), now, "other");
+        eventBusSend(buildGetQueuesCountOperation(), count -> {
+            context.assertEquals(7L, count.result().body().getLong(VALUE));
+            eventBusSend(buildGetQueuesCountOperation("stats-"), prefixCount -> {
+                context.assertEquals(6L, prefixCount.result().body().getLong(VALUE));
+                eventBusSend(buildGetQueuesOperation(), all -> {
+                    JsonArray allQueues = all.result().body().getJsonObject(VALUE).getJsonArray(QUEUES);
+                    context.assertEquals(7, allQueues.size());
+                    eventBusSend(buildGetQueuesOperation(2, 3), page -> {
+                        context.assertEquals(new JsonArray(allQueues.getList().subList(2, 5)),
+                                page.result().body().getJsonObject(VALUE).getJsonArray(QUEUES));
+                        eventBusSend(buildGetQueuesOperation("stats-", 1, 4), prefixPage -> {
+                        List<Object> statsQueues = new ArrayList<>();
+                        for (Object queue : allQueues) {
+                            if (((String) queue).startsWith("stats-")) {
+                                statsQueues.add(queue);
+                            }
+                        }
+                        context.assertEquals(new JsonArray(statsQueues.subList(1, 5)),
+                                prefixPage.result().body().getJsonObject(VALUE).getJsonArray(QUEUES));
+                        eventBusSend(buildGetQueuesStatisticsOperation(5, 10), statsPage -> {
+                        JsonArray pagedStatistics = statsPage.result().body().getJsonObject(VALUE).getJsonArray(QUEUES);
+                        context.assertEquals(2, pagedStatistics.size());
+                        context.assertEquals(allQueues.getString(5), pagedStatistics.getJsonObject(0).getString(NAME));
+                        eventBusSend(buildGetQueuesStatisticsOperation(Arrays.asList("stats-queue5", "stats-queue0", "stats-queue3")), stats -> {
+                            JsonArray statistics = stats.result().body().getJsonObject(VALUE).getJsonArray(QUEUES);
+                            context.assertEquals(3, statistics.size());
+                            context.assertEquals("stats-queue5", statistics.getJsonObject(0).getString(NAME));
+                            context.assertEquals(6L, statistics.getJsonObject(0).getLong(SIZE));
+                            context.assertEquals("stats-queue0", statistics.getJsonObject(1).getString(NAME));
+                            context.assertEquals(1L, statistics.getJsonObject(1).getLong(SIZE));
+                            context.assertEquals(4L, statistics.getJsonObject(2).getLong(SIZE));
+                            async.complete();
+                        });
+                        });
+                        });
+                    });
+                });
+            });
+        });
+    }
+
+    @Test
+    public void locksAcrossShards(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildPutLockOperation("lock-queue1", "someuser"), put1 -> {
+            context.assertEquals(OK, put1.result().body().getString(STATUS));
+            eventBusSend(buildPutLockOperation("lock-queue2", "someuser"), put2 -> {
+                context.assertTrue(jedis.hexists(keys.locksKey("lock-queue1"), "lock-queue1"));
+                context.assertTrue(jedis.hexists(keys.locksKey("lock-queue2"), "lock-queue2"));
+                eventBusSend(buildGetAllLocksOperation(), locks -> {
+                    JsonArray allLocks = locks.result().body().getJsonObject(VALUE).getJsonArray("locks");
+                    context.assertEquals(new HashSet<>(Arrays.asList("lock-queue1", "lock-queue2")), new HashSet<>(allLocks.getList()));
+                    eventBusSend(buildGetLockOperation("lock-queue2"), lock -> {
+                        context.assertEquals(OK, lock.result().body().getString(STATUS));
+                        eventBusSend(buildDeleteLockOperation("lock-queue2"), delete -> {
+                            context.assertFalse(jedis.hexists(keys.locksKey("lock-queue2"), "lock-queue2"));
+                            async.complete();
+                        });
+                    });
+                });
+            });
+        });
+    }
+}
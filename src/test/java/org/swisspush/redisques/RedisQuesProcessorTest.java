@@ -6,6 +6,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -13,13 +14,18 @@ import io.vertx.ext.unit.junit.Timeout;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
+import org.swisspush.redisques.util.QueueConfiguration;
 import org.swisspush.redisques.util.RedisquesConfiguration;
 import redis.clients.jedis.Jedis;
 
 import javax.xml.bind.DatatypeConverter;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -50,6 +56,17 @@ public class RedisQuesProcessorTest extends AbstractTestCase {
                 .processorAddress("processor-address")
                 .redisEncoding("ISO-8859-1")
                 .refreshPeriod(2)
+                .prefetchCount(3)
+                .prefetchQueuesPattern("prefetch-.*")
+                .maxAttempts(3)
+                .priorityLevels(2)
+                .redisPoolSize(4)
+                .queueConfigurations(Arrays.asList(
+                        new QueueConfiguration("routed-.*")
+                                .processorAddress("processor-address-routed")
+                                .retryInitialDelay(100),
+                        new QueueConfiguration("dlq-.*").retryInitialDelay(100),
+                        new QueueConfiguration("fenced-.*").processorTimeout(300).retryInitialDelay(100)))
                 .build()
                 .asJsonObject();
 
@@ -103,6 +120,31 @@ public class RedisQuesProcessorTest extends AbstractTestCase {
         }
     }
 
+    /**
+     * Enqueues sent without awaiting their replies must keep their order, although the commands are spread over
+     * several redis connections.
+     */
+    @Test
+    public void pipelinedEnqueuesKeepOrder(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final int count = 500;
+        final List<String> received = new ArrayList<>();
+        queueProcessor.handler(message -> {
+            received.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+            if (received.size() == count) {
+                for (int i = 0; i < count; i++) {
+                    context.assertEquals(String.valueOf(i), received.get(i));
+                }
+                async.complete();
+            }
+        });
+        for (int i = 0; i < count; i++) {
+            eventBusSend(buildEnqueueOperation("ordered-queue", String.valueOf(i)), null);
+        }
+    }
+
     private String digestStr(MessageDigest digest) {
         return DatatypeConverter.printBase64Binary(digest.digest());
     }
@@ -214,6 +256,167 @@ public class RedisQuesProcessorTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void enqueueWithRoutedQueueProcessor(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final AtomicInteger deliveries = new AtomicInteger(0);
+        final long[] firstDelivery = new long[1];
+        MessageConsumer<JsonObject> routedProcessor = vertx.eventBus().consumer("processor-address-routed", message -> {
+            context.assertEquals("routed-queue", message.body().getString("queue"));
+            if (deliveries.incrementAndGet() == 1) {
+                firstDelivery[0] = System.currentTimeMillis();
+                message.reply(new JsonObject().put(STATUS, ERROR));
+            } else {
+                // the overridden retry delay is much shorter than the refresh period
+                context.assertTrue(System.currentTimeMillis() - firstDelivery[0] < 1500);
+                message.reply(new JsonObject().put(STATUS, OK));
+                async.complete();
+            }
+        });
+        queueProcessor.handler(message -> context.fail("routed queue delivered to the default processor"));
+
+        eventBusSend(buildEnqueueOperation("routed-queue", "hello"), reply -> {
+            context.assertEquals(OK, reply.result().body().getString(STATUS));
+        });
+        async.awaitSuccess();
+        routedProcessor.unregister();
+    }
+
+    @Test
+    public void enqueueWithQueueProcessorMovesToDeadLetterQueue(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final AtomicInteger deliveries = new AtomicInteger(0);
+        queueProcessor.handler(message -> {
+            if ("poison".equals(message.body().getString(PAYLOAD))) {
+                deliveries.incrementAndGet();
+                message.reply(new JsonObject().put(STATUS, ERROR));
+            } else {
+                context.assertEquals("healthy", message.body().getString(PAYLOAD));
+                message.reply(new JsonObject().put(STATUS, OK));
+                sleep(200);
+                context.assertEquals(3, deliveries.get());
+                context.assertEquals(0L, jedis.llen("redisques:queues:dlq-queue"));
+                context.assertEquals(Collections.singletonList("poison"), jedis.lrange("redisques:dlq:dlq-queue", 0, -1));
+                context.assertTrue(jedis.sismember("redisques:dlqs", "dlq-queue"));
+                async.complete();
+            }
+        });
+
+        jedis.rpush("redisques:queues:dlq-queue", "poison");
+        eventBusSend(buildEnqueueOperation("dlq-queue", "healthy"), reply -> {
+            context.assertEquals(OK, reply.result().body().getString(STATUS));
+        });
+    }
+
+    @Test
+    public void attemptsAreOnlyResetAfterAFailure(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        jedis.configResetStat();
+        final AtomicInteger flakyDeliveries = new AtomicInteger(0);
+        queueProcessor.handler(message -> {
+            String payload = message.body().getString(PAYLOAD);
+            if ("healthy".equals(payload)) {
+                message.reply(new JsonObject().put(STATUS, OK));
+                vertx.setTimer(200, timerId -> {
+                    // no failure was seen, so no attempts are reset
+                    context.assertFalse(jedis.info("commandstats").contains("cmdstat_hdel"));
+                    eventBusSend(buildEnqueueOperation("dlq-flaky", "flaky"), null);
+                });
+            } else if (flakyDeliveries.incrementAndGet() == 1) {
+                message.reply(new JsonObject().put(STATUS, ERROR));
+            } else {
+                context.assertTrue(jedis.hexists("redisques:attempts", "dlq-flaky"));
+                message.reply(new JsonObject().put(STATUS, OK));
+                vertx.setTimer(200, timerId -> {
+                    context.assertFalse(jedis.hexists("redisques:attempts", "dlq-flaky"));
+                    context.assertEquals(0L, jedis.llen("redisques:dlq:dlq-flaky"));
+                    async.complete();
+                });
+            }
+        });
+
+        eventBusSend(buildEnqueueOperation("dlq-healthy", "healthy"), null);
+    }
+
+    @Test
+    public void enqueueWithPriorityOvertakesBacklog(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final List<String> processed = new ArrayList<>();
+        queueProcessor.handler(message -> {
+            processed.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+            if (processed.size() == 5) {
+                context.assertEquals(Arrays.asList("urgent", "high", "bulk1", "bulk2", "bulk3"), processed);
+                async.complete();
+            }
+        });
+
+        jedis.rpush("redisques:queues:priority-queue", "bulk1", "bulk2", "bulk3");
+        jedis.rpush("redisques:lanes:1:priority-queue", "high");
+        eventBusSend(buildEnqueueOperation("priority-queue", "urgent", 0), reply -> {
+            context.assertEquals(OK, reply.result().body().getString(STATUS));
+        });
+    }
+
+    @Test
+    public void enqueueIntoLockedQueue(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final AtomicInteger processed = new AtomicInteger(0);
+        queueProcessor.handler(message -> {
+            context.assertEquals("locked-queue", message.body().getString("queue"));
+            processed.incrementAndGet();
+            message.reply(new JsonObject().put(STATUS, OK));
+            async.complete();
+        });
+
+        eventBusSend(buildPutLockOperation("locked-queue", "geronimo"), lockReply -> {
+            context.assertEquals(OK, lockReply.result().body().getString(STATUS));
+            eventBusSend(buildEnqueueOperation("locked-queue", "hello"), reply -> {
+                context.assertEquals(OK, reply.result().body().getString(STATUS));
+                vertx.setTimer(1000, timerId -> {
+                    context.assertEquals(0, processed.get());
+                    context.assertEquals(1L, jedis.llen("redisques:queues:locked-queue"));
+                    eventBusSend(buildDeleteLockOperation("locked-queue"), unlockReply ->
+                            context.assertEquals(OK, unlockReply.result().body().getString(STATUS)));
+                });
+            });
+        });
+    }
+
+    @Test
+    public void lateReplyAfterTimeoutDoesNotRemoveNextItem(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final List<String> deliveries = new ArrayList<>();
+        queueProcessor.handler(message -> {
+            context.assertNotNull(message.body().getString(DELIVERY_ID));
+            deliveries.add(message.body().getString(PAYLOAD));
+            if (deliveries.size() == 1) {
+                vertx.setTimer(800, timerId -> message.reply(new JsonObject().put(STATUS, OK)));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        jedis.rpush("redisques:queues:fenced-queue", "a");
+        eventBusSend(buildEnqueueOperation("fenced-queue", "b"), reply -> {
+            context.assertEquals(OK, reply.result().body().getString(STATUS));
+            vertx.setTimer(1500, timerId -> {
+                context.assertEquals(Arrays.asList("a", "a", "b"), deliveries);
+                context.assertEquals(0L, jedis.llen("redisques:queues:fenced-queue"));
+                eventBusSend(buildGetMetricsOperation(), metrics -> {
+                    context.assertTrue(metrics.result().body().getJsonObject(VALUE).getLong("staleAcknowledgements") >= 1L);
+                    async.complete();
+                });
+            });
+        });
+    }
+
     @Test
     public void enqueueWithQueueProcessorFirstProcessFails(TestContext context) throws Exception {
         Async async = context.async();
@@ -312,6 +515,43 @@ public class RedisQuesProcessorTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void enqueueWithQueueProcessorPrefetch(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+
+        final AtomicInteger batchCounter = new AtomicInteger(0);
+
+        queueProcessor.handler(message -> {
+            int batch = batchCounter.incrementAndGet();
+
+            context.assertEquals("prefetch-queue", message.body().getString("queue"));
+            context.assertNull(message.body().getString(PAYLOAD));
+            JsonArray payloads = message.body().getJsonArray(PAYLOADS);
+
+            if (batch == 1) {
+                context.assertEquals(new JsonArray().add("a").add("b").add("c"), payloads);
+                message.reply(new JsonObject().put(STATUS, OK));
+            } else {
+                context.assertEquals(new JsonArray().add("d").add("e"), payloads);
+                message.reply(new JsonObject().put(STATUS, OK));
+                sleep(500);
+
+                // assert that the queue is empty now
+                context.assertEquals(0L, jedis.llen("redisques:queues:prefetch-queue"));
+
+                // end the test
+                async.complete();
+            }
+        });
+
+        jedis.rpush("redisques:queues:prefetch-queue", "a", "b", "c", "d");
+        final JsonObject operation = buildEnqueueOperation("prefetch-queue", "e");
+        eventBusSend(operation, reply -> {
+            context.assertEquals(OK, reply.result().body().getString(STATUS));
+        });
+    }
+
     private void sleep(int millis) {
         try {
             Thread.sleep(millis);
@@ -0,0 +1,185 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+public class RedisQuesReliableProcessorTest extends AbstractTestCase {
+
+    @Rule
+    public Timeout rule = Timeout.seconds(20);
+
+    @BeforeClass
+    public static void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress("processor-address")
+                .redisEncoding("ISO-8859-1")
+                .refreshPeriod(2)
+                .processorTimeout(300)
+                .retryInitialDelay(100)
+                .reliableMode(true)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    @Test
+    public void enqueueWithPriorityWhenPrioritiesAreDisabled(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildEnqueueOperation("queue1", "hello", 0), message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            context.assertEquals("Property 'priority' is not supported, the priority lanes are disabled",
+                    message.result().body().getString(MESSAGE));
+            assertKeyCount(context, "redisques:queues", 0);
+            async.complete();
+        });
+    }
+
+    /**
+     * The first delivery is answered after the processor timeout. The late reply must neither remove the redelivered
+     * item nor the next item of the queue.
+     */
+    @Test
+    public void lateReplyAfterTimeoutIsIgnored(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final List<String> deliveries = new ArrayList<>();
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            deliveries.add(message.body().getString(PAYLOAD));
+            if (deliveries.size() == 1) {
+                vertx.setTimer(800, timerId -> message.reply(new JsonObject().put(STATUS, OK)));
+            } else {
+                message.reply(new JsonObject().put(STATUS, OK));
+            }
+        });
+
+        jedis.rpush("redisques:queues:reliable-queue", "a");
+        eventBusSend(buildEnqueueOperation("reliable-queue", "b"), reply -> {
+            context.assertEquals(OK, reply.result().body().getString(STATUS));
+            vertx.setTimer(1500, timerId -> {
+                context.assertEquals(Arrays.asList("a", "a", "b"), deliveries);
+                context.assertEquals(0L, jedis.llen("redisques:queues:reliable-queue"));
+                context.assertTrue(jedis.keys("redisques:processing:*").stream()
+                        .noneMatch(key -> "hash".equals(jedis.type(key))));
+                queueProcessor.unregister();
+                async.complete();
+            });
+        });
+    }
+
+    /**
+     * Requests to consume arriving while a claim is pending must not claim further items, which would be left in the
+     * processing hash of this live instance.
+     */
+    @Test
+    public void backToBackEnqueuesAreAllDelivered(TestContext context) throws Exception {
+        Async async = context.async();
+        flushAll();
+        final List<String> deliveries = new ArrayList<>();
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            deliveries.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        // the first message makes this instance the consumer, the queue is then owned and ready
+        eventBusSend(buildEnqueueOperation("back-to-back-queue", "x"), null);
+        vertx.setTimer(500, primed -> {
+            eventBusSend(buildEnqueueOperation("back-to-back-queue", "a"), null);
+            eventBusSend(buildEnqueueOperation("back-to-back-queue", "b"), null);
+            vertx.setTimer(1000, timerId -> {
+                context.assertEquals(Arrays.asList("x", "a", "b"), deliveries);
+                context.assertEquals(0L, jedis.llen("redisques:queues:back-to-back-queue"));
+                context.assertTrue(jedis.keys("redisques:processing:*").stream()
+                        .noneMatch(key -> "hash".equals(jedis.type(key))));
+                queueProcessor.unregister();
+                async.complete();
+            });
+        });
+    }
+
+    /**
+     * An instance removed from the consumers with items in flight, e.g. by a recovery during a long pause, registers
+     * itself again with the next liveness refresh.
+     */
+    @Test
+    public void livenessRefreshRegistersConsumerAgain(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        vertx.setTimer(2500, timerId -> {
+            context.assertEquals(1L, jedis.scard("redisques:processing:consumers"));
+            String consumer = jedis.smembers("redisques:processing:consumers").iterator().next();
+            context.assertTrue(jedis.exists("redisques:processing:alive:" + consumer));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void deleteLockResumesOwnedQueueOnce(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final List<String> deliveries = new ArrayList<>();
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            deliveries.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        eventBusSend(buildEnqueueOperation("unlocked-queue", "x"), null);
+        vertx.setTimer(500, primed -> eventBusSend(buildPutLockOperation("unlocked-queue", "someuser"), lock -> {
+            jedis.rpush("redisques:queues:unlocked-queue", "a", "b");
+            eventBusSend(buildDeleteLockOperation("unlocked-queue"), unlock -> vertx.setTimer(1000, timerId -> {
+                context.assertEquals(Arrays.asList("x", "a", "b"), deliveries);
+                context.assertTrue(jedis.keys("redisques:processing:*").stream()
+                        .noneMatch(key -> "hash".equals(jedis.type(key))));
+                queueProcessor.unregister();
+                async.complete();
+            }));
+        }));
+    }
+
+    /**
+     * The item in flight is popped from the queue list, but still counts as item of the queue until it is acknowledged.
+     */
+    @Test
+    public void itemsInFlightAreCounted(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            context.assertEquals(0L, jedis.llen("redisques:queues:inflight-queue"));
+            eventBusSend(buildGetQueueItemsCountOperation("inflight-queue"), count -> {
+                context.assertEquals(1L, count.result().body().getLong(VALUE));
+                message.reply(new JsonObject().put(STATUS, OK));
+                vertx.setTimer(200, timerId -> eventBusSend(buildGetQueueItemsCountOperation("inflight-queue"), count1 -> {
+                    context.assertEquals(0L, count1.result().body().getLong(VALUE));
+                    context.assertFalse(jedis.exists("redisques:inflight"));
+                    async.complete();
+                }));
+            });
+        });
+        eventBusSend(buildEnqueueOperation("inflight-queue", "a"), null);
+        async.awaitSuccess();
+        queueProcessor.unregister();
+    }
+}
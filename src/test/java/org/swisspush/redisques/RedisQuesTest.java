@@ -5,6 +5,7 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
@@ -20,9 +21,7 @@ import redis.clients.jedis.Jedis;
 import javax.xml.bind.DatatypeConverter;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.swisspush.redisques.util.RedisquesAPI.*;
@@ -36,6 +35,7 @@ public class RedisQuesTest extends AbstractTestCase {
 
     public static final String TIMESTAMP = "timestamp";
     public static final String QUEUES_PREFIX = "redisques:queues:";
+    public static final String LANES_PREFIX = "redisques:lanes:";
     public static final String REDISQUES_LOCKS = "redisques:locks";
 
     @Rule
@@ -49,6 +49,8 @@ public class RedisQuesTest extends AbstractTestCase {
                 .processorAddress("processor-address")
                 .redisEncoding("ISO-8859-1")
                 .refreshPeriod(2)
+                .priorityLevels(2)
+                .delayedPollInterval(200)
                 .build()
                 .asJsonObject();
 
@@ -85,6 +87,99 @@ public class RedisQuesTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void bulkEnqueue(TestContext context) {
+        Async async = context.async(5);
+        flushAll();
+        assertKeyCount(context, QUEUES_PREFIX, 0);
+        Map<String, List<String>> queueMessages = new LinkedHashMap<>();
+        queueMessages.put("queueBulk1", Arrays.asList("m1", "m2", "m3"));
+        queueMessages.put("queueBulk2", Collections.singletonList("m4"));
+        // process the enqueued messages, so that no retries are left over for other tests
+        Map<String, List<String>> processed = new HashMap<>();
+        MessageConsumer<JsonObject> processor = vertx.eventBus().consumer("processor-address", message -> {
+            String queue = message.body().getString("queue");
+            processed.computeIfAbsent(queue, q -> new ArrayList<>()).add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+            async.countDown();
+        });
+        eventBusSend(buildBulkEnqueueOperation(queueMessages), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals(4, message.result().body().getInteger(VALUE));
+            context.assertNotNull(jedis.zscore("redisques:queues", "queueBulk1"));
+            context.assertNotNull(jedis.zscore("redisques:queues", "queueBulk2"));
+            async.countDown();
+        });
+        async.awaitSuccess();
+        processor.unregister();
+        context.assertEquals(queueMessages, processed);
+    }
+
+    @Test
+    public void bulkEnqueueMissingMessages(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildOperation(QueueOperation.bulkEnqueue, new JsonObject()), message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            assertKeyCount(context, QUEUES_PREFIX, 0);
+            JsonObject invalidEntry = new JsonObject().put(MESSAGES, new JsonArray().add(new JsonObject().put(QUEUENAME, "queueBulk1")));
+            eventBusSend(buildOperation(QueueOperation.bulkEnqueue, invalidEntry), message1 -> {
+                context.assertEquals(ERROR, message1.result().body().getString(STATUS));
+                assertKeyCount(context, QUEUES_PREFIX, 0);
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void reset(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        for (int i = 0; i < 2500; i++) {
+            jedis.set("redisques:consumers:resetQueue" + i, "someConsumer");
+        }
+        jedis.rpush(QUEUES_PREFIX + "resetQueue1", "item1");
+        assertKeyCount(context, "redisques:consumers:resetQueue", 2500);
+        eventBusSend(buildResetOperation(), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertTrue(message.result().body().getJsonObject(VALUE).getLong(COUNT) >= 2500L);
+            context.assertTrue(message.result().body().getJsonObject(VALUE).getInteger(ITERATIONS) > 1);
+            assertKeyCount(context, "redisques:consumers:", 0);
+            assertKeyCount(context, QUEUES_PREFIX, 1);
+            async.complete();
+        });
+    }
+
+    @Test
+    public void checkQueues(TestContext context) {
+        Async async = context.async(101);
+        flushAll();
+        for (int i = 0; i < 1200; i++) {
+            jedis.zadd("redisques:queues", i, "checkQueue" + i);
+            if (i % 12 == 0) {
+                jedis.rpush(QUEUES_PREFIX + "checkQueue" + i, "item");
+            }
+        }
+        // process the notified queues, so that no retries are left over for other tests
+        MessageConsumer<JsonObject> processor = vertx.eventBus().consumer("processor-address", message -> {
+            message.reply(new JsonObject().put(STATUS, OK));
+            async.countDown();
+        });
+        final long checkStart = System.currentTimeMillis();
+        eventBusSend(buildCheckOperation(), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals(100L, jedis.zcard("redisques:queues"));
+            for (int i = 0; i < 1200; i += 12) {
+                Double score = jedis.zscore("redisques:queues", "checkQueue" + i);
+                context.assertNotNull(score);
+                context.assertTrue(score >= checkStart);
+            }
+            async.countDown();
+        });
+        async.awaitSuccess();
+        processor.unregister();
+    }
+
     @Test
     public void getQueueItems(TestContext context) {
         Async async = context.async();
@@ -133,6 +228,94 @@ public class RedisQuesTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void getQueuesPagedAndFiltered(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            jedis.zadd("redisques:queues", now + i, "pagedA" + i);
+            jedis.zadd("redisques:queues", now + i, "pagedB" + i);
+        }
+        jedis.zadd("redisques:queues", 1, "pagedAOutdated");
+        eventBusSend(buildGetQueuesOperation(2, 3), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            JsonArray queuesArray = message.result().body().getJsonObject(VALUE).getJsonArray("queues");
+            context.assertEquals(3, queuesArray.size());
+            eventBusSend(buildGetQueuesOperation("pagedA", 7, 5), message1 -> {
+                context.assertEquals(OK, message1.result().body().getString(STATUS));
+                JsonArray filteredArray = message1.result().body().getJsonObject(VALUE).getJsonArray("queues");
+                context.assertEquals(new JsonArray().add("pagedA7").add("pagedA8").add("pagedA9"), filteredArray);
+                eventBusSend(buildGetQueuesCountOperation("pagedB"), message2 -> {
+                    context.assertEquals(OK, message2.result().body().getString(STATUS));
+                    context.assertEquals(10L, message2.result().body().getLong(VALUE));
+                    JsonObject stringPaging = new JsonObject().put(PREFIX, "pagedB").put(OFFSET, "1").put(LIMIT, "2");
+                    eventBusSend(buildOperation(QueueOperation.getQueues, stringPaging), message3 -> {
+                        context.assertEquals(OK, message3.result().body().getString(STATUS));
+                        context.assertEquals(new JsonArray().add("pagedB1").add("pagedB2"),
+                                message3.result().body().getJsonObject(VALUE).getJsonArray("queues"));
+                        async.complete();
+                    });
+                });
+            });
+        });
+    }
+
+    @Test
+    public void getQueuesStatistics(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        long now = System.currentTimeMillis();
+        jedis.rpush(QUEUES_PREFIX + "statsQueue1", "a", "b");
+        jedis.zadd("redisques:queues", now, "statsQueue1");
+        jedis.set("redisques:consumers:statsQueue1", "someUid");
+        jedis.hset(REDISQUES_LOCKS, "statsQueue1", "lockInfo");
+        jedis.zadd("redisques:queues", now + 1, "statsQueue2");
+        eventBusSend(buildGetQueuesStatisticsOperation(Arrays.asList("statsQueue1", "statsUnknown")), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            JsonArray queues = message.result().body().getJsonObject(VALUE).getJsonArray(QUEUES);
+            context.assertEquals(2, queues.size());
+            context.assertEquals(new JsonObject().put(NAME, "statsQueue1").put(SIZE, 2L).put(RedisQues.TIMESTAMP, now)
+                    .put(CONSUMER, "someUid").put(LOCKED, true), queues.getJsonObject(0));
+            context.assertEquals(new JsonObject().put(NAME, "statsUnknown").put(SIZE, 0L).putNull(RedisQues.TIMESTAMP)
+                    .putNull(CONSUMER).put(LOCKED, false), queues.getJsonObject(1));
+            eventBusSend(buildGetQueuesStatisticsOperation(1, 10), message1 -> {
+                context.assertEquals(OK, message1.result().body().getString(STATUS));
+                JsonArray pagedQueues = message1.result().body().getJsonObject(VALUE).getJsonArray(QUEUES);
+                context.assertEquals(1, pagedQueues.size());
+                context.assertEquals("statsQueue2", pagedQueues.getJsonObject(0).getString(NAME));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void getMetrics(TestContext context) {
+        Async async = context.async(2);
+        flushAll();
+        // process the enqueued message, so that no retries are left over for other tests
+        MessageConsumer<JsonObject> processor = vertx.eventBus().consumer("processor-address", message -> {
+            message.reply(new JsonObject().put(STATUS, OK));
+            async.countDown();
+        });
+        eventBusSend(buildGetMetricsOperation(), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            long enqueued = message.result().body().getJsonObject(VALUE).getLong("enqueued");
+            eventBusSend(buildEnqueueOperation("metricsQueue", "helloWorld"), message1 -> {
+                context.assertEquals(OK, message1.result().body().getString(STATUS));
+                eventBusSend(buildGetMetricsOperation(), message2 -> {
+                    JsonObject metrics = message2.result().body().getJsonObject(VALUE);
+                    context.assertEquals(enqueued + 1, metrics.getLong("enqueued"));
+                    context.assertTrue(metrics.getJsonObject("redis").getJsonObject("rpush").getLong("count") > 0);
+                    context.assertNotNull(metrics.getLong("myQueues"));
+                    async.countDown();
+                });
+            });
+        });
+        async.awaitSuccess();
+        processor.unregister();
+    }
+
     @Test
     public void getQueuesCount(TestContext context) {
         Async asyncEnqueue = context.async(100);
@@ -173,6 +356,64 @@ public class RedisQuesTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void getQueueItemsCountWithPriorityLanes(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        jedis.rpush(QUEUES_PREFIX + "queue1", "a", "b", "c");
+        jedis.rpush(LANES_PREFIX + "0:queue1", "d");
+        jedis.rpush(LANES_PREFIX + "1:queue1", "e", "f");
+        eventBusSend(buildGetQueueItemsCountOperation("queue1"), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals(6L, message.result().body().getLong(VALUE));
+            eventBusSend(buildDeleteAllQueueItemsOperation("queue1"), message1 -> {
+                context.assertEquals(OK, message1.result().body().getString(STATUS));
+                assertKeyCount(context, QUEUES_PREFIX, 0);
+                assertKeyCount(context, LANES_PREFIX, 0);
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void queueItemOperationsWithPriorityLanes(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        jedis.rpush(QUEUES_PREFIX + "queue1", "a", "b");
+        jedis.rpush(LANES_PREFIX + "1:queue1", "d");
+        eventBusSend(buildGetQueueItemsOperation("queue1", null), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals(new JsonArray().add("d").add("a").add("b"), message.result().body().getJsonArray(VALUE));
+            eventBusSend(buildGetQueueItemOperation("queue1", 0), message1 -> {
+                context.assertEquals(OK, message1.result().body().getString(STATUS));
+                context.assertEquals("d", message1.result().body().getString(VALUE));
+                eventBusSend(buildReplaceQueueItemOperation("queue1", 2, "c"), message2 -> {
+                    context.assertEquals(OK, message2.result().body().getString(STATUS));
+                    eventBusSend(buildDeleteQueueItemOperation("queue1", 0), message3 -> {
+                        context.assertEquals(OK, message3.result().body().getString(STATUS));
+                        context.assertEquals(Arrays.asList("a", "c"), jedis.lrange(QUEUES_PREFIX + "queue1", 0, -1));
+                        assertKeyCount(context, LANES_PREFIX, 0);
+                        eventBusSend(buildReplaceQueueItemOperation("queue1", 2, "x"), message4 -> {
+                            context.assertEquals(ERROR, message4.result().body().getString(STATUS));
+                            async.complete();
+                        });
+                    });
+                });
+            });
+        });
+    }
+
+    @Test
+    public void enqueueWithInvalidPriority(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        eventBusSend(buildEnqueueOperation("queue1", "hello", 2), message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            assertKeyCount(context, QUEUES_PREFIX, 0);
+            async.complete();
+        });
+    }
+
     @Test
     public void deleteAllQueueItems(TestContext context) {
         Async async = context.async();
@@ -242,6 +483,28 @@ public class RedisQuesTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void getQueueItemsWithOffset(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        jedis.rpush(QUEUES_PREFIX + "queue2", "item0", "item1", "item2", "item3", "item4");
+        eventBusSend(buildGetQueueItemsOperation("queue2", 3, "10"), event -> {
+            context.assertEquals(OK, event.result().body().getString(STATUS));
+            context.assertEquals(new JsonArray().add("item3").add("item4"), event.result().body().getJsonArray(VALUE));
+            context.assertEquals(2, event.result().body().getJsonArray(INFO).getInteger(0));
+            context.assertEquals(5, event.result().body().getJsonArray(INFO).getInteger(1));
+            eventBusSend(buildGetQueueItemsOperation("queue2", 1, "2"), event1 -> {
+                context.assertEquals(new JsonArray().add("item1").add("item2"), event1.result().body().getJsonArray(VALUE));
+                eventBusSend(buildGetQueueItemsOperation("queue2", 5, "2"), event2 -> {
+                    context.assertEquals(OK, event2.result().body().getString(STATUS));
+                    context.assertEquals(0, event2.result().body().getJsonArray(VALUE).size());
+                    context.assertEquals(5, event2.result().body().getJsonArray(INFO).getInteger(1));
+                    async.complete();
+                });
+            });
+        });
+    }
+
     @Test
     public void getQueueItem(TestContext context) {
         Async async = context.async();
@@ -319,6 +582,137 @@ public class RedisQuesTest extends AbstractTestCase {
         });
     }
 
+    @Test
+    public void deleteQueueItems(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        jedis.rpush(QUEUES_PREFIX + "queue1", "a", "TO_DELETE", "c", "d", "e");
+        eventBusSend(buildDeleteQueueItemOperation("queue1", Arrays.asList(0, 5)), message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            assertKeyCount(context, QUEUES_PREFIX + "queue1", 1);
+            context.assertEquals(5L, jedis.llen(QUEUES_PREFIX + "queue1"));
+            eventBusSend(buildDeleteQueueItemOperation("queue1", Arrays.asList(0, 2, -1)), message2 -> {
+                context.assertEquals(OK, message2.result().body().getString(STATUS));
+                context.assertEquals(Arrays.asList("TO_DELETE", "d"), jedis.lrange(QUEUES_PREFIX + "queue1", 0, -1));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void deleteQueueItemsWithInvalidIndexes(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        jedis.rpush(QUEUES_PREFIX + "queue1", "a", "b");
+        JsonObject withoutIndex = buildDeleteQueueItemOperation("queue1", 0);
+        withoutIndex.getJsonObject(PAYLOAD).remove(INDEX);
+        eventBusSend(withoutIndex, message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            context.assertNotNull(message.result().body().getString(MESSAGE));
+            JsonObject withStringIndexes = buildDeleteQueueItemOperation("queue1", Arrays.asList(0, 1));
+            withStringIndexes.getJsonObject(PAYLOAD).put(INDEXES, new JsonArray().add(0).add("1"));
+            eventBusSend(withStringIndexes, message2 -> {
+                context.assertEquals(ERROR, message2.result().body().getString(STATUS));
+                context.assertNotNull(message2.result().body().getString(MESSAGE));
+                JsonObject withLongIndexes = buildDeleteQueueItemOperation("queue1", Arrays.asList(0, 1));
+                withLongIndexes.getJsonObject(PAYLOAD).put(INDEXES, new JsonArray().add(1L));
+                eventBusSend(withLongIndexes, message3 -> {
+                    context.assertEquals(OK, message3.result().body().getString(STATUS));
+                    context.assertEquals(Arrays.asList("a"), jedis.lrange(QUEUES_PREFIX + "queue1", 0, -1));
+                    async.complete();
+                });
+            });
+        });
+    }
+
+    @Test
+    public void enqueueDelayed(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final long start = System.currentTimeMillis();
+        MessageConsumer<JsonObject> processor = vertx.eventBus().consumer("processor-address", message -> {
+            context.assertEquals("delayed", message.body().getString(PAYLOAD));
+            context.assertTrue(System.currentTimeMillis() - start >= 500);
+            message.reply(new JsonObject().put(STATUS, OK));
+            async.complete();
+        });
+        eventBusSend(buildEnqueueDelayedOperation("queue1", "delayed", 500), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            context.assertEquals(1L, jedis.zcard("redisques:delayed"));
+            context.assertFalse(jedis.exists(QUEUES_PREFIX + "queue1"));
+        });
+        async.awaitSuccess();
+        processor.unregister();
+        context.assertEquals(0L, jedis.zcard("redisques:delayed"));
+    }
+
+    @Test
+    public void enqueueDelayedWithoutLocalTimer(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final long dueTime = System.currentTimeMillis() + 1000;
+        MessageConsumer<JsonObject> processor = vertx.eventBus().consumer("processor-address", message -> {
+            context.assertEquals("polled", message.body().getString(PAYLOAD));
+            context.assertTrue(System.currentTimeMillis() >= dueTime);
+            message.reply(new JsonObject().put(STATUS, OK));
+            async.complete();
+        });
+        // as if enqueued by another instance, only the poll finds the message and sets the timer for its due time
+        jedis.zadd("redisques:delayed", dueTime, new JsonObject().put("queue", "queue1").put(MESSAGE, "polled")
+                .put("id", "1").encode());
+        async.awaitSuccess();
+        processor.unregister();
+        context.assertEquals(0L, jedis.zcard("redisques:delayed"));
+    }
+
+    @Test
+    public void enqueueDelayedWithoutDelay(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        JsonObject operation = buildEnqueueDelayedOperation("queue1", "delayed", 0);
+        operation.getJsonObject(PAYLOAD).remove(DELAY);
+        eventBusSend(operation, message -> {
+            context.assertEquals(ERROR, message.result().body().getString(STATUS));
+            context.assertEquals(0L, jedis.zcard("redisques:delayed"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void deadLetterQueues(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        MessageConsumer<JsonObject> processor = vertx.eventBus().consumer("processor-address",
+                message -> message.reply(new JsonObject().put(STATUS, OK)));
+        jedis.rpush("redisques:dlq:queue1", "a", "b", "c");
+        jedis.sadd("redisques:dlqs", "queue1");
+        jedis.rpush("redisques:dlq:queue2", "x");
+        jedis.sadd("redisques:dlqs", "queue2");
+        eventBusSend(buildGetDeadLetterQueuesOperation(), message -> {
+            context.assertEquals(OK, message.result().body().getString(STATUS));
+            JsonArray queues = message.result().body().getJsonObject(VALUE).getJsonArray("queues");
+            context.assertEquals(2, queues.size());
+            eventBusSend(buildGetDeadLetterQueueItemsOperation("queue1", 1, "10"), message2 -> {
+                context.assertEquals(OK, message2.result().body().getString(STATUS));
+                context.assertEquals(new JsonArray().add("b").add("c"), message2.result().body().getJsonArray(VALUE));
+                eventBusSend(buildDeleteDeadLetterQueueOperation("queue2"), message3 -> {
+                    context.assertEquals(OK, message3.result().body().getString(STATUS));
+                    context.assertFalse(jedis.exists("redisques:dlq:queue2"));
+                    context.assertFalse(jedis.sismember("redisques:dlqs", "queue2"));
+                    eventBusSend(buildReplayDeadLetterQueueOperation("queue1"), message4 -> {
+                        context.assertEquals(OK, message4.result().body().getString(STATUS));
+                        context.assertEquals(3L, message4.result().body().getLong(VALUE));
+                        context.assertFalse(jedis.exists("redisques:dlq:queue1"));
+                        context.assertFalse(jedis.sismember("redisques:dlqs", "queue1"));
+                        processor.unregister();
+                        async.complete();
+                    });
+                });
+            });
+        });
+        async.awaitSuccess();
+    }
+
     @Test
     public void getAllLocks(TestContext context) {
         Async async = context.async();
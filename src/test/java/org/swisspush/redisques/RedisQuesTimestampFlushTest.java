@@ -0,0 +1,112 @@
+package org.swisspush.redisques;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.swisspush.redisques.util.RedisquesConfiguration;
+import redis.clients.jedis.Jedis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.swisspush.redisques.util.RedisquesAPI.*;
+
+public class RedisQuesTimestampFlushTest extends AbstractTestCase {
+
+    private static final int TIMESTAMP_FLUSH_INTERVAL = 2000;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(20);
+
+    @BeforeClass
+    public static void deployRedisques(TestContext context) {
+        vertx = Vertx.vertx();
+        JsonObject config = RedisquesConfiguration.with()
+                .processorAddress("processor-address")
+                .redisEncoding("ISO-8859-1")
+                // no periodic registration refresh writes a timestamp while the tests run
+                .refreshPeriod(60)
+                .timestampFlushInterval(TIMESTAMP_FLUSH_INTERVAL)
+                .build()
+                .asJsonObject();
+
+        RedisQues redisQues = new RedisQues();
+        vertx.deployVerticle(redisQues, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(event -> {
+            deploymentId = event;
+            log.info("vert.x Deploy - " + redisQues.getClass().getSimpleName() + " was successful.");
+            jedis = new Jedis("localhost", 6379, 5000);
+        }));
+    }
+
+    /**
+     * The timestamp written when processing is only written with the next flush, while the timestamp of the enqueue
+     * is written right away.
+     */
+    @Test
+    public void processingTimestampIsWrittenWithTheFlush(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final List<String> deliveries = new ArrayList<>();
+        final long[] deliveredAt = new long[1];
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            String payload = message.body().getString(PAYLOAD);
+            deliveries.add(payload);
+            if ("b".equals(payload)) {
+                deliveredAt[0] = System.currentTimeMillis();
+                Double enqueuedAt = jedis.zscore("redisques:queues", "flushed-queue");
+                context.assertNotNull(enqueuedAt);
+                context.assertTrue(enqueuedAt < deliveredAt[0] - 200);
+            }
+            vertx.setTimer(300, timerId -> message.reply(new JsonObject().put(STATUS, OK)));
+        });
+
+        eventBusSend(buildEnqueueOperation("flushed-queue", "a"), null);
+        eventBusSend(buildEnqueueOperation("flushed-queue", "b"), null);
+        vertx.setTimer(300 + TIMESTAMP_FLUSH_INTERVAL + 500, timerId -> {
+            context.assertEquals(Arrays.asList("a", "b"), deliveries);
+            context.assertTrue(jedis.zscore("redisques:queues", "flushed-queue") >= deliveredAt[0] - 50);
+            queueProcessor.unregister();
+            async.complete();
+        });
+    }
+
+    /**
+     * A queue filled while write-behind is enabled is in the queues sorted set before any flush, so the queue check
+     * picks it up, e.g. when the instance filling it died.
+     */
+    @Test
+    public void checkPicksUpQueueBeforeTheFlush(TestContext context) {
+        Async async = context.async();
+        flushAll();
+        final List<String> deliveries = new ArrayList<>();
+        MessageConsumer<JsonObject> queueProcessor = vertx.eventBus().consumer("processor-address", message -> {
+            deliveries.add(message.body().getString(PAYLOAD));
+            message.reply(new JsonObject().put(STATUS, OK));
+        });
+
+        // the lock keeps the message in the queue, as if its consumer was gone
+        eventBusSend(buildPutLockOperation("checked-queue", "someuser"), lock ->
+                eventBusSend(buildEnqueueOperation("checked-queue", "a"), enqueue -> {
+            context.assertEquals(OK, enqueue.result().body().getString(STATUS));
+            context.assertNotNull(jedis.zscore("redisques:queues", "checked-queue"));
+            jedis.zadd("redisques:queues", 1, "checked-queue");
+            eventBusSend(buildCheckOperation(), check -> {
+                context.assertTrue(jedis.zscore("redisques:queues", "checked-queue") > 1);
+                eventBusSend(buildDeleteLockOperation("checked-queue"), unlock -> vertx.setTimer(500, timerId -> {
+                    context.assertEquals(Arrays.asList("a"), deliveries);
+                    context.assertEquals(0L, jedis.llen("redisques:queues:checked-queue"));
+                    queueProcessor.unregister();
+                    async.complete();
+                }));
+            });
+        }));
+    }
+}
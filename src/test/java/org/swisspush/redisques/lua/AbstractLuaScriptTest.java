@@ -13,6 +13,9 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Abstract class containing common methods for LuaScript tests
@@ -90,4 +93,260 @@ public abstract class AbstractLuaScriptTest {
                 }
         );
     }
+
+    protected Object evalScriptClaim(String consumerKey, String queueKey, String uid, int expireSeconds, int count) {
+        return evalScriptClaim(consumerKey, queueKey, uid, expireSeconds, count, "", "", "");
+    }
+
+    protected Object evalScriptClaim(String consumerKey, List<String> laneKeys, String uid, int expireSeconds, int count) {
+        return evalScriptClaim(consumerKey, laneKeys, uid, expireSeconds, count, "", "", "");
+    }
+
+    protected Object evalScriptClaim(String consumerKey, String queueKey, String uid, int expireSeconds, int count,
+                                     String processingKey, String deliveryId, String queue) {
+        return evalScriptClaim(consumerKey, Collections.singletonList(queueKey), uid, expireSeconds, count,
+                processingKey, deliveryId, queue);
+    }
+
+    protected Object evalScriptClaim(String consumerKey, List<String> laneKeys, String uid, int expireSeconds, int count,
+                                     String processingKey, String deliveryId, String queue) {
+        String claimScript = readScript("redisques_claim.lua");
+        return jedis.eval(claimScript, new ArrayList() {
+                    {
+                        add(consumerKey);
+                        addAll(laneKeys);
+                    }
+                }, new ArrayList() {
+                    {
+                        add(uid);
+                        add(String.valueOf(expireSeconds));
+                        add(String.valueOf(count));
+                        add(processingKey);
+                        add(deliveryId);
+                        add(queue);
+                        add("redisques:inflight");
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptCheckQueues(long limit, long timestamp, int consumerExpireSeconds, int chunkSize) {
+        return evalScriptCheckQueues(limit, timestamp, consumerExpireSeconds, chunkSize, 0);
+    }
+
+    protected Object evalScriptCheckQueues(long limit, long timestamp, int consumerExpireSeconds, int chunkSize, int priorityLevels) {
+        String checkQueuesScript = readScript("redisques_check_queues.lua");
+        return jedis.eval(checkQueuesScript, new ArrayList() {
+                    {
+                        add("redisques:queues");
+                        add("redisques:inflight");
+                    }
+                }, new ArrayList() {
+                    {
+                        add(String.valueOf(limit));
+                        add(String.valueOf(timestamp));
+                        add("redisques:queues:");
+                        add("redisques:consumers:");
+                        add(String.valueOf(consumerExpireSeconds));
+                        add(String.valueOf(chunkSize));
+                        add(String.valueOf(priorityLevels));
+                        add("redisques:lanes:");
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptRefreshRegistrations(String uid, int consumerExpireSeconds, long timestamp, String... queues) {
+        String refreshRegistrationsScript = readScript("redisques_refresh_registrations.lua");
+        return jedis.eval(refreshRegistrationsScript, new ArrayList() {
+                    {
+                        add("redisques:queues");
+                    }
+                }, new ArrayList() {
+                    {
+                        add("redisques:consumers:");
+                        add(uid);
+                        add(String.valueOf(consumerExpireSeconds));
+                        add(String.valueOf(timestamp));
+                        addAll(Arrays.asList(queues));
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptDeleteQueueItems(String queueKey, String tombstone, int... indexes) {
+        return evalScriptDeleteQueueItems(Collections.singletonList(queueKey), tombstone, indexes);
+    }
+
+    protected Object evalScriptDeleteQueueItems(List<String> laneKeys, String tombstone, int... indexes) {
+        String deleteQueueItemsScript = readScript("redisques_delete_queue_items.lua");
+        return jedis.eval(deleteQueueItemsScript, laneKeys, new ArrayList() {
+                    {
+                        add(tombstone);
+                        for (int index : indexes) {
+                            add(String.valueOf(index));
+                        }
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptGetQueueItems(String queueKey, int offset, int maxIndex) {
+        return evalScriptGetQueueItems(Collections.singletonList(queueKey), offset, maxIndex);
+    }
+
+    protected Object evalScriptGetQueueItems(List<String> laneKeys, int offset, int maxIndex) {
+        String getQueueItemsScript = readScript("redisques_get_queue_items.lua");
+        return jedis.eval(getQueueItemsScript, laneKeys, Arrays.asList(String.valueOf(offset), String.valueOf(maxIndex)));
+    }
+
+    protected Object evalScriptQueueItem(List<String> laneKeys, String... arguments) {
+        String queueItemScript = readScript("redisques_queue_item.lua");
+        return jedis.eval(queueItemScript, laneKeys, Arrays.asList(arguments));
+    }
+
+    protected Object evalScriptGetQueues(long minScore, String prefix, int offset, int limit, boolean countOnly) {
+        String getQueuesScript = readScript("redisques_get_queues.lua");
+        return jedis.eval(getQueuesScript, new ArrayList() {
+                    {
+                        add("redisques:queues");
+                    }
+                }, new ArrayList() {
+                    {
+                        add(String.valueOf(minScore));
+                        add(prefix);
+                        add(String.valueOf(offset));
+                        add(String.valueOf(limit));
+                        add(String.valueOf(countOnly));
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptGetQueuesStatistics(String... queues) {
+        String getQueuesStatisticsScript = readScript("redisques_get_queues_statistics.lua");
+        return jedis.eval(getQueuesStatisticsScript, new ArrayList() {
+                    {
+                        add("redisques:queues");
+                        add("redisques:locks");
+                        add("redisques:inflight");
+                    }
+                }, new ArrayList() {
+                    {
+                        add("redisques:queues:");
+                        add("redisques:consumers:");
+                        add("0");
+                        add("redisques:lanes:");
+                        addAll(Arrays.asList(queues));
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptDeadLetter(String queue, String headItem, int maxAttempts) {
+        String deadLetterScript = readScript("redisques_dead_letter.lua");
+        return jedis.eval(deadLetterScript, new ArrayList() {
+                    {
+                        add("redisques:attempts");
+                        add("redisques:queues:" + queue);
+                        add("redisques:dlq:" + queue);
+                        add("redisques:dlqs");
+                    }
+                }, new ArrayList() {
+                    {
+                        add(queue);
+                        add(headItem);
+                        add(String.valueOf(maxAttempts));
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptReplayDeadLetterQueue(String queue) {
+        String replayScript = readScript("redisques_replay_dead_letter_queue.lua");
+        return jedis.eval(replayScript, new ArrayList() {
+                    {
+                        add("redisques:dlq:" + queue);
+                        add("redisques:dlqs");
+                        add("redisques:queues:" + queue);
+                    }
+                }, new ArrayList() {
+                    {
+                        add(queue);
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptMoveDelayed(String uid, long now, int batchSize) {
+        String moveDelayedScript = readScript("redisques_move_delayed.lua");
+        return jedis.eval(moveDelayedScript, new ArrayList() {
+                    {
+                        add("redisques:delayed");
+                        add("redisques:delayed:lease");
+                        add("redisques:queues");
+                    }
+                }, new ArrayList() {
+                    {
+                        add(uid);
+                        add("10000");
+                        add(String.valueOf(now));
+                        add(String.valueOf(batchSize));
+                        add("redisques:queues:");
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptNack(String processingKey, String deliveryId) {
+        String nackScript = readScript("redisques_nack.lua");
+        return jedis.eval(nackScript, new ArrayList() {
+                    {
+                        add(processingKey);
+                        add("redisques:inflight");
+                    }
+                }, new ArrayList() {
+                    {
+                        add(deliveryId);
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptRecoverProcessing(long timestamp) {
+        String recoverProcessingScript = readScript("redisques_recover_processing.lua");
+        return jedis.eval(recoverProcessingScript, new ArrayList() {
+                    {
+                        add("redisques:processing:consumers");
+                        add("redisques:queues");
+                        add("redisques:inflight");
+                    }
+                }, new ArrayList() {
+                    {
+                        add("redisques:processing:");
+                        add("redisques:processing:alive:");
+                        add(String.valueOf(timestamp));
+                    }
+                }
+        );
+    }
+
+    protected Object evalScriptAck(String laneKey, String... items) {
+        String ackScript = readScript("redisques_ack.lua");
+        return jedis.eval(ackScript, Collections.singletonList(laneKey), Arrays.asList(items));
+    }
+
+    protected Object evalScriptAckDelivery(String processingKey, String deliveryId) {
+        String ackDeliveryScript = readScript("redisques_ack_delivery.lua");
+        return jedis.eval(ackDeliveryScript, Arrays.asList(processingKey, "redisques:inflight"),
+                Collections.singletonList(deliveryId));
+    }
+
+    protected Object evalScriptGetQueueLength(String queue, String... laneKeys) {
+        String getQueueLengthScript = readScript("redisques_get_queue_length.lua");
+        List<String> keys = new ArrayList<>();
+        keys.add("redisques:inflight");
+        keys.addAll(Arrays.asList(laneKeys));
+        return jedis.eval(getQueueLengthScript, keys, Collections.singletonList(queue));
+    }
 }
@@ -0,0 +1,34 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisAckLuaScriptTests extends AbstractLuaScriptTest {
+
+    private final String queueKey = "redisques:queues:queue1";
+
+    @Test
+    public void testAckRemovesDeliveredHead() {
+        jedis.rpush(queueKey, "item1", "item2", "item3");
+        assertThat(evalScriptAck(queueKey, "item1", "item2"), equalTo(1L));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item3")));
+    }
+
+    @Test
+    public void testAckIgnoresChangedHead() {
+        jedis.rpush(queueKey, "item2", "item3");
+        assertThat(evalScriptAck(queueKey, "item1"), equalTo(0L));
+        assertThat(evalScriptAck(queueKey, "item2", "item4"), equalTo(0L));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item2", "item3")));
+    }
+
+    @Test
+    public void testAckEmptyQueue() {
+        assertThat(evalScriptAck(queueKey, "item1"), equalTo(0L));
+        assertThat(jedis.exists(queueKey), is(false));
+    }
+}
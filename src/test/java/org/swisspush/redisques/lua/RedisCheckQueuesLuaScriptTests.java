@@ -0,0 +1,67 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisCheckQueuesLuaScriptTests extends AbstractLuaScriptTest {
+
+    private static final String QUEUES = "redisques:queues";
+
+    @Test
+    public void testCheckQueuesNoInactiveQueues() {
+        jedis.zadd(QUEUES, 200, "queue1");
+        jedis.rpush("redisques:queues:queue1", "item1");
+        List result = (List) evalScriptCheckQueues(100, 300, 20, 10);
+        assertThat(result, equalTo(Arrays.asList(0L, Collections.emptyList())));
+        assertThat(jedis.zscore(QUEUES, "queue1"), equalTo(200.0));
+    }
+
+    @Test
+    public void testCheckQueuesUpdatesNonEmptyAndRemovesEmptyQueues() {
+        jedis.zadd(QUEUES, 10, "queue1");
+        jedis.zadd(QUEUES, 20, "queue2");
+        jedis.zadd(QUEUES, 200, "queue3");
+        jedis.rpush("redisques:queues:queue1", "item1");
+        jedis.set("redisques:consumers:queue1", "uid1");
+
+        List result = (List) evalScriptCheckQueues(100, 300, 20, 10);
+        assertThat(result, equalTo(Arrays.asList(2L, Collections.singletonList("queue1"))));
+        assertThat(jedis.zscore(QUEUES, "queue1"), equalTo(300.0));
+        assertThat(jedis.zscore(QUEUES, "queue2"), is(nullValue()));
+        assertThat(jedis.zscore(QUEUES, "queue3"), equalTo(200.0));
+        assertThat(jedis.ttl("redisques:consumers:queue1"), equalTo(20L));
+    }
+
+    @Test
+    public void testCheckQueuesInChunks() {
+        for (int i = 0; i < 5; i++) {
+            jedis.zadd(QUEUES, i, "queue" + i);
+            jedis.rpush("redisques:queues:queue" + i, "item");
+        }
+        List result = (List) evalScriptCheckQueues(100, 300, 20, 3);
+        assertThat(result, equalTo(Arrays.asList(3L, Arrays.asList("queue0", "queue1", "queue2"))));
+        result = (List) evalScriptCheckQueues(100, 300, 20, 3);
+        assertThat(result, equalTo(Arrays.asList(2L, Arrays.asList("queue3", "queue4"))));
+        result = (List) evalScriptCheckQueues(100, 300, 20, 3);
+        assertThat(result, equalTo(Arrays.asList(0L, Collections.emptyList())));
+    }
+
+    @Test
+    public void testCheckQueuesKeepsQueuesWithNonEmptyPriorityLanes() {
+        jedis.zadd(QUEUES, 10, "queue1");
+        jedis.zadd(QUEUES, 20, "queue2");
+        jedis.rpush("redisques:lanes:1:queue1", "item1");
+        jedis.rpush("redisques:queues:queue2:p0", "notALane");
+
+        List result = (List) evalScriptCheckQueues(100, 300, 20, 10, 2);
+        assertThat(result, equalTo(Arrays.asList(2L, Collections.singletonList("queue1"))));
+        assertThat(jedis.zscore(QUEUES, "queue1"), equalTo(300.0));
+        assertThat(jedis.zscore(QUEUES, "queue2"), is(nullValue()));
+    }
+}
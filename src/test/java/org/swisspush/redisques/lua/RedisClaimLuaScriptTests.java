@@ -0,0 +1,82 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisClaimLuaScriptTests extends AbstractLuaScriptTest {
+
+    private final String consumerKey = "redisques:consumers:queue1";
+    private final String queueKey = "redisques:queues:queue1";
+    private final String laneKey0 = "redisques:lanes:0:queue1";
+    private final String laneKey1 = "redisques:lanes:1:queue1";
+
+    @Test
+    public void testClaimNotRegistered() {
+        jedis.rpush(queueKey, "item1");
+        List result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 1);
+        assertThat(result, equalTo(Arrays.asList(0L)));
+        assertThat(jedis.ttl(consumerKey), equalTo(-2L));
+    }
+
+    @Test
+    public void testClaimRegisteredByOtherConsumer() {
+        jedis.set(consumerKey, "uid2");
+        jedis.rpush(queueKey, "item1");
+        List result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 1);
+        assertThat(result, equalTo(Arrays.asList(0L, "uid2")));
+        assertThat(jedis.ttl(consumerKey), equalTo(-1L));
+    }
+
+    @Test
+    public void testClaimEmptyQueue() {
+        jedis.set(consumerKey, "uid1");
+        List result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 0L)));
+        assertThat(jedis.ttl(consumerKey), equalTo(20L));
+    }
+
+    @Test
+    public void testClaimReturnsHeadAndLength() {
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1", "item2", "item3");
+        List result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 3L, queueKey, "item1")));
+        assertThat(jedis.ttl(consumerKey), equalTo(20L));
+        assertThat(jedis.llen(queueKey), equalTo(3L));
+    }
+
+    @Test
+    public void testClaimReturnsWindow() {
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1", "item2", "item3");
+        List result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 2);
+        assertThat(result, equalTo(Arrays.asList(1L, 3L, queueKey, "item1", "item2")));
+
+        result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 5);
+        assertThat(result, equalTo(Arrays.asList(1L, 3L, queueKey, "item1", "item2", "item3")));
+        assertThat(jedis.llen(queueKey), equalTo(3L));
+    }
+
+    @Test
+    public void testClaimReadsHighestNonEmptyLane() {
+        List<String> laneKeys = Arrays.asList(laneKey0, laneKey1, queueKey);
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1", "item2");
+        jedis.rpush(laneKey1, "urgent1", "urgent2");
+        List result = (List) evalScriptClaim(consumerKey, laneKeys, "uid1", 20, 5);
+        assertThat(result, equalTo(Arrays.asList(1L, 4L, laneKey1, "urgent1", "urgent2")));
+
+        jedis.rpush(laneKey0, "control");
+        result = (List) evalScriptClaim(consumerKey, laneKeys, "uid1", 20, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 5L, laneKey0, "control")));
+
+        jedis.del(laneKey0, laneKey1);
+        result = (List) evalScriptClaim(consumerKey, laneKeys, "uid1", 20, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 2L, queueKey, "item1")));
+    }
+}
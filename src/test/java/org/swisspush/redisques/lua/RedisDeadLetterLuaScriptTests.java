@@ -0,0 +1,46 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisDeadLetterLuaScriptTests extends AbstractLuaScriptTest {
+
+    @Test
+    public void testDeadLetterCountsAttempts() {
+        jedis.rpush("redisques:queues:queue1", "item0", "item1");
+        List result = (List) evalScriptDeadLetter("queue1", "item0", 3);
+        assertThat(result, equalTo(Arrays.asList(0L, 1L)));
+        result = (List) evalScriptDeadLetter("queue1", "item0", 3);
+        assertThat(result, equalTo(Arrays.asList(0L, 2L)));
+        assertThat(jedis.hget("redisques:attempts", "queue1"), equalTo("2"));
+        assertThat(jedis.llen("redisques:queues:queue1"), equalTo(2L));
+        assertThat(jedis.exists("redisques:dlq:queue1"), is(false));
+    }
+
+    @Test
+    public void testDeadLetterMovesHeadItem() {
+        jedis.rpush("redisques:queues:queue1", "item0", "item1");
+        evalScriptDeadLetter("queue1", "item0", 2);
+        List result = (List) evalScriptDeadLetter("queue1", "item0", 2);
+        assertThat(result, equalTo(Arrays.asList(1L, 2L)));
+        assertThat(jedis.lrange("redisques:queues:queue1", 0, -1), equalTo(Arrays.asList("item1")));
+        assertThat(jedis.lrange("redisques:dlq:queue1", 0, -1), equalTo(Arrays.asList("item0")));
+        assertThat(jedis.smembers("redisques:dlqs").contains("queue1"), is(true));
+        assertThat(jedis.hexists("redisques:attempts", "queue1"), is(false));
+    }
+
+    @Test
+    public void testDeadLetterResetsAttemptsOnChangedHead() {
+        jedis.rpush("redisques:queues:queue1", "item1");
+        jedis.hset("redisques:attempts", "queue1", "5");
+        List result = (List) evalScriptDeadLetter("queue1", "item0", 2);
+        assertThat(result, equalTo(Arrays.asList(0L, 0L)));
+        assertThat(jedis.hexists("redisques:attempts", "queue1"), is(false));
+        assertThat(jedis.lrange("redisques:queues:queue1", 0, -1), equalTo(Arrays.asList("item1")));
+    }
+}
@@ -0,0 +1,64 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisDeleteQueueItemsLuaScriptTests extends AbstractLuaScriptTest {
+
+    private final String queueKey = "redisques:queues:queue1";
+
+    @Test
+    public void testDeleteQueueItemsEmptyQueue() {
+        List result = (List) evalScriptDeleteQueueItems(queueKey, "tombstone", 0);
+        assertThat(result, equalTo(Arrays.asList(-1L, "0")));
+        assertThat(jedis.exists(queueKey), is(false));
+    }
+
+    @Test
+    public void testDeleteQueueItemsIndexOutOfRange() {
+        jedis.rpush(queueKey, "item0", "item1", "item2");
+        List result = (List) evalScriptDeleteQueueItems(queueKey, "tombstone", 1, 3);
+        assertThat(result, equalTo(Arrays.asList(-1L, "3")));
+        result = (List) evalScriptDeleteQueueItems(queueKey, "tombstone", -4);
+        assertThat(result, equalTo(Arrays.asList(-1L, "-4")));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item0", "item1", "item2")));
+    }
+
+    @Test
+    public void testDeleteQueueItemsKeepsEqualItems() {
+        jedis.rpush(queueKey, "item0", "same", "same", "same", "item4");
+        List result = (List) evalScriptDeleteQueueItems(queueKey, "tombstone", 2);
+        assertThat(result, equalTo(Arrays.asList(1L)));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item0", "same", "same", "item4")));
+    }
+
+    @Test
+    public void testDeleteQueueItemsBatch() {
+        for (int i = 0; i < 10; i++) {
+            jedis.rpush(queueKey, "item" + i);
+        }
+        List result = (List) evalScriptDeleteQueueItems(queueKey, "tombstone", 1, 1, 8, -1);
+        assertThat(result, equalTo(Arrays.asList(3L)));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item0", "item2", "item3", "item4", "item5", "item6", "item7")));
+    }
+
+    @Test
+    public void testDeleteQueueItemsOverLanes() {
+        String laneKey0 = "redisques:lanes:0:queue1";
+        jedis.rpush(laneKey0, "urgent0", "urgent1");
+        jedis.rpush(queueKey, "item0", "item1", "item2");
+        List result = (List) evalScriptDeleteQueueItems(Arrays.asList(laneKey0, queueKey), "tombstone", 1, 2, -1);
+        assertThat(result, equalTo(Arrays.asList(3L)));
+        assertThat(jedis.lrange(laneKey0, 0, -1), equalTo(Collections.singletonList("urgent0")));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Collections.singletonList("item1")));
+
+        result = (List) evalScriptDeleteQueueItems(Arrays.asList(laneKey0, queueKey), "tombstone", 2);
+        assertThat(result, equalTo(Arrays.asList(-1L, "2")));
+    }
+}
@@ -0,0 +1,67 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisGetQueueItemsLuaScriptTests extends AbstractLuaScriptTest {
+
+    private final String queueKey = "redisques:queues:queue1";
+    private final String laneKey0 = "redisques:lanes:0:queue1";
+    private final List<String> laneKeys = Arrays.asList(laneKey0, "redisques:lanes:1:queue1", queueKey);
+
+    @Test
+    public void testGetQueueItemsEmptyQueue() {
+        List result = (List) evalScriptGetQueueItems(queueKey, 0, 49);
+        assertThat(result, equalTo(Arrays.asList(0L, Collections.emptyList())));
+    }
+
+    @Test
+    public void testGetQueueItemsRange() {
+        jedis.rpush(queueKey, "item0", "item1", "item2", "item3");
+        List result = (List) evalScriptGetQueueItems(queueKey, 1, 2);
+        assertThat(result, equalTo(Arrays.asList(4L, Arrays.asList("item1", "item2"))));
+        result = (List) evalScriptGetQueueItems(queueKey, 2, 49);
+        assertThat(result, equalTo(Arrays.asList(4L, Arrays.asList("item2", "item3"))));
+    }
+
+    @Test
+    public void testGetQueueItemsOffsetBeyondEnd() {
+        jedis.rpush(queueKey, "item0", "item1");
+        List result = (List) evalScriptGetQueueItems(queueKey, 2, 10);
+        assertThat(result, equalTo(Arrays.asList(2L, Collections.emptyList())));
+    }
+
+    @Test
+    public void testGetQueueItemsOverLanes() {
+        jedis.rpush(laneKey0, "urgent0");
+        jedis.rpush(queueKey, "item0", "item1", "item2");
+        List result = (List) evalScriptGetQueueItems(laneKeys, 0, 49);
+        assertThat(result, equalTo(Arrays.asList(4L, Arrays.asList("urgent0", "item0", "item1", "item2"))));
+        result = (List) evalScriptGetQueueItems(laneKeys, 1, 2);
+        assertThat(result, equalTo(Arrays.asList(4L, Arrays.asList("item0", "item1"))));
+        result = (List) evalScriptGetQueueItems(laneKeys, 0, 0);
+        assertThat(result, equalTo(Arrays.asList(4L, Collections.singletonList("urgent0"))));
+    }
+
+    @Test
+    public void testQueueItemOverLanes() {
+        jedis.rpush(laneKey0, "urgent0");
+        jedis.rpush(queueKey, "item0", "item1");
+        assertThat(evalScriptQueueItem(laneKeys, "0"), equalTo(Arrays.asList(1L, "urgent0")));
+        assertThat(evalScriptQueueItem(laneKeys, "1"), equalTo(Arrays.asList(1L, "item0")));
+        assertThat(evalScriptQueueItem(laneKeys, "-1"), equalTo(Arrays.asList(1L, "item1")));
+        assertThat(evalScriptQueueItem(laneKeys, "3"), equalTo(Collections.singletonList(0L)));
+        assertThat(evalScriptQueueItem(laneKeys, "-4"), equalTo(Collections.singletonList(0L)));
+
+        assertThat(evalScriptQueueItem(laneKeys, "2", "replaced"), equalTo(Collections.singletonList(1L)));
+        assertThat(evalScriptQueueItem(laneKeys, "5", "replaced"), equalTo(Collections.singletonList(0L)));
+        assertThat(jedis.lrange(laneKey0, 0, -1), equalTo(Collections.singletonList("urgent0")));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item0", "replaced")));
+    }
+}
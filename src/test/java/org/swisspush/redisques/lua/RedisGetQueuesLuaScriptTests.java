@@ -0,0 +1,60 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisGetQueuesLuaScriptTests extends AbstractLuaScriptTest {
+
+    @Before
+    public void prepareQueues() {
+        jedis.zadd("redisques:queues", 10, "orders-1");
+        jedis.zadd("redisques:queues", 20, "orders-2");
+        jedis.zadd("redisques:queues", 30, "invoices-1");
+        jedis.zadd("redisques:queues", 40, "orders-3");
+        jedis.zadd("redisques:queues", 50, "orders-4");
+    }
+
+    @Test
+    public void testGetQueuesFilteredByPrefix() {
+        List result = (List) evalScriptGetQueues(15, "orders-", 0, -1, false);
+        assertThat(result, equalTo(Arrays.asList("orders-2", "orders-3", "orders-4")));
+    }
+
+    @Test
+    public void testGetQueuesPaged() {
+        List result = (List) evalScriptGetQueues(0, "orders-", 1, 2, false);
+        assertThat(result, equalTo(Arrays.asList("orders-2", "orders-3")));
+        result = (List) evalScriptGetQueues(0, "orders-", 4, 2, false);
+        assertThat(result, equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testGetQueuesCount() {
+        List result = (List) evalScriptGetQueues(15, "orders-", 0, -1, true);
+        assertThat(result, equalTo(Arrays.asList(3L)));
+        result = (List) evalScriptGetQueues(0, "unknown", 0, -1, true);
+        assertThat(result, equalTo(Arrays.asList(0L)));
+    }
+
+    @Test
+    public void testGetQueuesOverSeveralWindows() {
+        for (int i = 0; i < 2500; i++) {
+            jedis.zadd("redisques:queues", 100, (i % 2 == 0 ? "even-" : "odd-") + i);
+        }
+        List result = (List) evalScriptGetQueues(100, "odd-", 0, -1, true);
+        assertThat(result, equalTo(Arrays.asList(1250L)));
+        result = (List) evalScriptGetQueues(100, "odd-", 1249, 5, false);
+        assertThat(result.size(), equalTo(1));
+        result = (List) evalScriptGetQueues(100, "odd-", 500, 3, false);
+        assertThat(result.size(), equalTo(3));
+        assertThat(evalScriptGetQueues(100, "odd-", 0, 0, false), equalTo(Collections.emptyList()));
+        assertThat(evalScriptGetQueues(50, "orders-", 0, -1, false), equalTo(Collections.singletonList("orders-4")));
+    }
+}
@@ -0,0 +1,29 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisGetQueuesStatisticsLuaScriptTests extends AbstractLuaScriptTest {
+
+    @Test
+    public void testGetQueuesStatistics() {
+        jedis.rpush("redisques:queues:queue1", "item1", "item2", "item3");
+        jedis.zadd("redisques:queues", 100, "queue1");
+        jedis.set("redisques:consumers:queue1", "uid1");
+        jedis.hset("redisques:locks", "queue2", "lockInfo");
+
+        List result = (List) evalScriptGetQueuesStatistics("queue1", "queue2");
+        assertThat(result, equalTo(Arrays.asList("queue1", 3L, "100", "uid1", 0L, "queue2", 0L, null, null, 1L)));
+    }
+
+    @Test
+    public void testGetQueuesStatisticsNoQueues() {
+        List result = (List) evalScriptGetQueuesStatistics();
+        assertThat(result.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,58 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisMoveDelayedLuaScriptTests extends AbstractLuaScriptTest {
+
+    private void addDelayed(long dueTime, String queue, String message) {
+        jedis.zadd("redisques:delayed", dueTime, "{\"queue\":\"" + queue + "\",\"message\":\"" + message + "\",\"id\":\"" + dueTime + message + "\"}");
+    }
+
+    @Test
+    public void testMoveDelayedNothingDelayed() {
+        List result = (List) evalScriptMoveDelayed("uid1", 1000, 10);
+        assertThat(result, equalTo(Arrays.asList(1L, 0L, -1L)));
+        assertThat(jedis.exists("redisques:delayed:lease"), is(false));
+    }
+
+    @Test
+    public void testMoveDelayedMovesDueItemsOnly() {
+        addDelayed(100, "queue1", "a");
+        addDelayed(200, "queue2", "b");
+        addDelayed(300, "queue1", "c");
+        addDelayed(5000, "queue1", "d");
+        List result = (List) evalScriptMoveDelayed("uid1", 1000, 10);
+        assertThat(result, equalTo(Arrays.asList(1L, 3L, 5000L, "queue1", 2L, "queue2", 1L)));
+        assertThat(jedis.lrange("redisques:queues:queue1", 0, -1), equalTo(Arrays.asList("a", "c")));
+        assertThat(jedis.lrange("redisques:queues:queue2", 0, -1), equalTo(Arrays.asList("b")));
+        assertThat(jedis.zcard("redisques:delayed"), equalTo(1L));
+        assertThat(jedis.zscore("redisques:queues", "queue1"), equalTo(1000.0));
+        assertThat(jedis.exists("redisques:delayed:lease"), is(false));
+    }
+
+    @Test
+    public void testMoveDelayedKeepsLeaseWhileItemsAreLeft() {
+        addDelayed(100, "queue1", "a");
+        addDelayed(200, "queue1", "b");
+        List result = (List) evalScriptMoveDelayed("uid1", 1000, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 1L, 200L, "queue1", 1L)));
+        assertThat(jedis.get("redisques:delayed:lease"), equalTo("uid1"));
+
+        result = (List) evalScriptMoveDelayed("uid2", 1000, 1);
+        assertThat(result, equalTo(Arrays.asList(0L, 0L, 200L)));
+
+        result = (List) evalScriptMoveDelayed("uid1", 1000, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 1L, -1L, "queue1", 1L)));
+        assertThat(jedis.lrange("redisques:queues:queue1", 0, -1), equalTo(Arrays.asList("a", "b")));
+
+        result = (List) evalScriptMoveDelayed("uid1", 1000, 1);
+        assertThat(result, equalTo(Arrays.asList(1L, 0L, -1L)));
+        assertThat(jedis.exists("redisques:delayed:lease"), is(false));
+    }
+}
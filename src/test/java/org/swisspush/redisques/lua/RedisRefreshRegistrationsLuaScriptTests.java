@@ -0,0 +1,44 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisRefreshRegistrationsLuaScriptTests extends AbstractLuaScriptTest {
+
+    private static final String QUEUES = "redisques:queues";
+
+    @Test
+    public void testRefreshRegistrationsOwnedQueues() {
+        jedis.set("redisques:consumers:queue1", "uid1");
+        jedis.set("redisques:consumers:queue2", "uid1");
+        jedis.zadd(QUEUES, 10, "queue1");
+
+        List result = (List) evalScriptRefreshRegistrations("uid1", 20, 300, "queue1", "queue2");
+        assertThat(result, equalTo(Collections.emptyList()));
+        assertThat(jedis.ttl("redisques:consumers:queue1"), equalTo(20L));
+        assertThat(jedis.ttl("redisques:consumers:queue2"), equalTo(20L));
+        assertThat(jedis.zscore(QUEUES, "queue1"), equalTo(300.0));
+        assertThat(jedis.zscore(QUEUES, "queue2"), equalTo(300.0));
+    }
+
+    @Test
+    public void testRefreshRegistrationsNotOwnedQueues() {
+        jedis.set("redisques:consumers:queue1", "uid1");
+        jedis.set("redisques:consumers:queue2", "uid2");
+        jedis.zadd(QUEUES, 10, "queue2");
+
+        List result = (List) evalScriptRefreshRegistrations("uid1", 20, 300, "queue1", "queue2", "queue3");
+        assertThat(result, equalTo(Arrays.asList("queue2", "queue3")));
+        assertThat(jedis.ttl("redisques:consumers:queue1"), equalTo(20L));
+        assertThat(jedis.ttl("redisques:consumers:queue2"), equalTo(-1L));
+        assertThat(jedis.zscore(QUEUES, "queue1"), equalTo(300.0));
+        assertThat(jedis.zscore(QUEUES, "queue2"), equalTo(10.0));
+        assertThat(jedis.zscore(QUEUES, "queue3"), is(nullValue()));
+    }
+}
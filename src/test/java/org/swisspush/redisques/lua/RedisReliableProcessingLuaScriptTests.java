@@ -0,0 +1,94 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisReliableProcessingLuaScriptTests extends AbstractLuaScriptTest {
+
+    private final String consumerKey = "redisques:consumers:queue1";
+    private final String queueKey = "redisques:queues:queue1";
+    private final String processingKey = "redisques:processing:uid1";
+    private static final String INFLIGHT = "redisques:inflight";
+
+    @Test
+    public void testClaimMovesItemsToProcessing() {
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1", "item2", "item3");
+        List result = (List) evalScriptClaim(consumerKey, queueKey, "uid1", 20, 2, processingKey, "d1", "queue1");
+        assertThat(result, equalTo(Arrays.asList(1L, 3L, queueKey, "item1", "item2")));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Collections.singletonList("item3")));
+        assertThat(jedis.hexists(processingKey, "d1"), is(true));
+        assertThat(jedis.hget(INFLIGHT, "queue1"), equalTo("2"));
+        assertThat(evalScriptGetQueueLength("queue1", queueKey), equalTo(Collections.singletonList(3L)));
+    }
+
+    @Test
+    public void testAckDeliveryReleasesItems() {
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1", "item2", "item3");
+        evalScriptClaim(consumerKey, queueKey, "uid1", 20, 2, processingKey, "d1", "queue1");
+
+        assertThat(evalScriptAckDelivery(processingKey, "d1"), equalTo(1L));
+        assertThat(jedis.exists(processingKey), is(false));
+        assertThat(jedis.hexists(INFLIGHT, "queue1"), is(false));
+        assertThat(evalScriptGetQueueLength("queue1", queueKey), equalTo(Collections.singletonList(1L)));
+
+        assertThat(evalScriptAckDelivery(processingKey, "d1"), equalTo(0L));
+    }
+
+    @Test
+    public void testCheckQueuesKeepsQueuesWithItemsInFlight() {
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1");
+        jedis.zadd("redisques:queues", 10, "queue1");
+        evalScriptClaim(consumerKey, queueKey, "uid1", 20, 1, processingKey, "d1", "queue1");
+
+        List result = (List) evalScriptCheckQueues(100, 300, 20, 10);
+        assertThat(result, equalTo(Arrays.asList(1L, Collections.singletonList("queue1"))));
+        assertThat(jedis.zscore("redisques:queues", "queue1"), equalTo(300.0));
+    }
+
+    @Test
+    public void testNackReturnsItemsToHead() {
+        jedis.set(consumerKey, "uid1");
+        jedis.rpush(queueKey, "item1", "item2", "item3");
+        evalScriptClaim(consumerKey, queueKey, "uid1", 20, 2, processingKey, "d1", "queue1");
+
+        assertThat(evalScriptNack(processingKey, "d1"), equalTo(1L));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item1", "item2", "item3")));
+        assertThat(jedis.exists(processingKey), is(false));
+        assertThat(jedis.hexists(INFLIGHT, "queue1"), is(false));
+
+        assertThat(evalScriptNack(processingKey, "d1"), equalTo(0L));
+        assertThat(jedis.llen(queueKey), equalTo(3L));
+    }
+
+    @Test
+    public void testRecoverProcessingOfDeadConsumersOnly() {
+        jedis.set("redisques:consumers:queue2", "uid2");
+        jedis.rpush(queueKey, "item1", "item2");
+        jedis.rpush("redisques:queues:queue2", "other1");
+        jedis.set(consumerKey, "uid1");
+        evalScriptClaim(consumerKey, queueKey, "uid1", 20, 1, processingKey, "d1", "queue1");
+        evalScriptClaim("redisques:consumers:queue2", "redisques:queues:queue2", "uid2", 20, 1,
+                "redisques:processing:uid2", "d2", "queue2");
+        jedis.sadd("redisques:processing:consumers", "uid1", "uid2");
+        jedis.set("redisques:processing:alive:uid2", "1");
+
+        List result = (List) evalScriptRecoverProcessing(500);
+        assertThat(result, equalTo(Collections.singletonList("queue1")));
+        assertThat(jedis.lrange(queueKey, 0, -1), equalTo(Arrays.asList("item1", "item2")));
+        assertThat(jedis.zscore("redisques:queues", "queue1"), equalTo(500.0));
+        assertThat(jedis.exists(processingKey), is(false));
+        assertThat(jedis.smembers("redisques:processing:consumers"), equalTo(Collections.singleton("uid2")));
+        assertThat(jedis.llen("redisques:queues:queue2"), equalTo(0L));
+        assertThat(jedis.hexists("redisques:processing:uid2", "d2"), is(true));
+        assertThat(jedis.hgetAll(INFLIGHT), equalTo(Collections.singletonMap("queue2", "1")));
+    }
+}
@@ -0,0 +1,42 @@
+package org.swisspush.redisques.lua;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RedisReplayDeadLetterQueueLuaScriptTests extends AbstractLuaScriptTest {
+
+    @Test
+    public void testReplayEmptyDeadLetterQueue() {
+        List result = (List) evalScriptReplayDeadLetterQueue("queue1");
+        assertThat(result, equalTo(Arrays.asList(0L)));
+        assertThat(jedis.exists("redisques:queues:queue1"), is(false));
+    }
+
+    @Test
+    public void testReplayAppendsToQueue() {
+        jedis.rpush("redisques:queues:queue1", "item2");
+        jedis.rpush("redisques:dlq:queue1", "item0", "item1");
+        jedis.sadd("redisques:dlqs", "queue1");
+        List result = (List) evalScriptReplayDeadLetterQueue("queue1");
+        assertThat(result, equalTo(Arrays.asList(2L)));
+        assertThat(jedis.lrange("redisques:queues:queue1", 0, -1), equalTo(Arrays.asList("item2", "item0", "item1")));
+        assertThat(jedis.exists("redisques:dlq:queue1"), is(false));
+        assertThat(jedis.sismember("redisques:dlqs", "queue1"), is(false));
+    }
+
+    @Test
+    public void testReplayLargeDeadLetterQueue() {
+        for (int i = 0; i < 2500; i++) {
+            jedis.rpush("redisques:dlq:queue1", "item" + i);
+        }
+        List result = (List) evalScriptReplayDeadLetterQueue("queue1");
+        assertThat(result, equalTo(Arrays.asList(2500L)));
+        assertThat(jedis.llen("redisques:queues:queue1"), equalTo(2500L));
+        assertThat(jedis.lindex("redisques:queues:queue1", 2499), equalTo("item2499"));
+    }
+}
@@ -0,0 +1,59 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link DefaultRedisquesMetrics} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class DefaultRedisquesMetricsTest {
+
+    @Test
+    public void testEmptyMetrics(TestContext context) {
+        JsonObject json = new DefaultRedisquesMetrics().toJsonObject();
+        context.assertEquals(0L, json.getLong("enqueued"));
+        context.assertEquals(0L, json.getLong("dequeued"));
+        context.assertEquals(0L, json.getLong("processorTimeouts"));
+        context.assertEquals(0L, json.getLong("reschedules"));
+        context.assertEquals(0L, json.getJsonObject("processorRoundTrip").getLong("count"));
+        context.assertEquals(0L, json.getJsonObject("processorRoundTrip").getLong("meanMs"));
+        context.assertTrue(json.getJsonObject("redis").isEmpty());
+    }
+
+    @Test
+    public void testAggregatedMetrics(TestContext context) {
+        DefaultRedisquesMetrics metrics = new DefaultRedisquesMetrics();
+        metrics.enqueued("queue1", 3);
+        metrics.enqueued("queue2", 1);
+        metrics.dequeued("queue1", 2);
+        metrics.processorTimeout("queue1");
+        metrics.rescheduled("queue1");
+        metrics.rescheduled("queue2");
+        metrics.deadLettered("queue1");
+        metrics.staleAcknowledged("queue1");
+        metrics.processorRoundTrip("queue1", 10, true);
+        metrics.processorRoundTrip("queue2", 30, false);
+        metrics.redisOperation("claim", 4, true);
+        metrics.redisOperation("claim", 2, true);
+        metrics.redisOperation("lpop", 1, false);
+        metrics.registerGauge("myQueues", () -> 7);
+
+        JsonObject json = metrics.toJsonObject();
+        context.assertEquals(4L, json.getLong("enqueued"));
+        context.assertEquals(2L, json.getLong("dequeued"));
+        context.assertEquals(1L, json.getLong("processorTimeouts"));
+        context.assertEquals(2L, json.getLong("reschedules"));
+        context.assertEquals(1L, json.getLong("deadLettered"));
+        context.assertEquals(1L, json.getLong("staleAcknowledgements"));
+        context.assertEquals(new JsonObject().put("count", 2L).put("failures", 1L).put("meanMs", 20L).put("maxMs", 30L),
+                json.getJsonObject("processorRoundTrip"));
+        context.assertEquals(new JsonObject().put("count", 2L).put("failures", 0L).put("meanMs", 3L).put("maxMs", 4L),
+                json.getJsonObject("redis").getJsonObject("claim"));
+        context.assertEquals(1L, json.getJsonObject("redis").getJsonObject("lpop").getLong("failures"));
+        context.assertEquals(7L, json.getLong("myQueues"));
+    }
+}
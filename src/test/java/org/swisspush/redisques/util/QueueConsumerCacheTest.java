@@ -0,0 +1,67 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link QueueConsumerCache} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class QueueConsumerCacheTest {
+
+    @Test
+    public void testPutGetInvalidate(TestContext context){
+        QueueConsumerCache cache = new QueueConsumerCache(10, 1000);
+        context.assertTrue(cache.isEnabled());
+        context.assertNull(cache.get("queue1"));
+        cache.put("queue1", "consumer1");
+        context.assertEquals("consumer1", cache.get("queue1"));
+        cache.put("queue1", "consumer2");
+        context.assertEquals("consumer2", cache.get("queue1"));
+        cache.invalidate("queue1");
+        context.assertNull(cache.get("queue1"));
+        context.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiration(TestContext context){
+        AtomicLong now = new AtomicLong(1000);
+        QueueConsumerCache cache = new QueueConsumerCache(10, 500, now::get);
+        cache.put("queue1", "consumer1");
+        now.set(1499);
+        context.assertEquals("consumer1", cache.get("queue1"));
+        now.set(1500);
+        context.assertNull(cache.get("queue1"));
+        context.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed(TestContext context){
+        QueueConsumerCache cache = new QueueConsumerCache(2, 1000);
+        cache.put("queue1", "consumer1");
+        cache.put("queue2", "consumer2");
+        cache.get("queue1");
+        cache.put("queue3", "consumer3");
+        context.assertEquals(2, cache.size());
+        context.assertEquals("consumer1", cache.get("queue1"));
+        context.assertNull(cache.get("queue2"));
+        context.assertEquals("consumer3", cache.get("queue3"));
+    }
+
+    @Test
+    public void testDisabled(TestContext context){
+        QueueConsumerCache cache = new QueueConsumerCache(10, 0);
+        context.assertFalse(cache.isEnabled());
+        cache.put("queue1", "consumer1");
+        context.assertNull(cache.get("queue1"));
+
+        cache = new QueueConsumerCache(0, 1000);
+        context.assertFalse(cache.isEnabled());
+        cache.put("queue1", "consumer1");
+        context.assertNull(cache.get("queue1"));
+    }
+}
@@ -0,0 +1,51 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link QueueSettings} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class QueueSettingsTest {
+
+    @Test
+    public void testDefaults(TestContext context) {
+        QueueSettings settings = new QueueSettings(RedisquesConfiguration.with()
+                .processorAddress("default-processor")
+                .processorTimeout(5000)
+                .refreshPeriod(3)
+                .build());
+        context.assertEquals("default-processor", settings.getProcessorAddress("queue1"));
+        context.assertEquals(5000, settings.getProcessorTimeout("queue1"));
+        context.assertEquals(3000L, settings.getRetryPolicy("queue1").getDelayMs(5));
+    }
+
+    @Test
+    public void testFirstMatchingQueueConfiguration(TestContext context) {
+        QueueSettings settings = new QueueSettings(RedisquesConfiguration.with()
+                .processorAddress("default-processor")
+                .processorTimeout(5000)
+                .retryInitialDelay(1000)
+                .retryMultiplier(2.0)
+                .queueConfigurations(Arrays.asList(
+                        new QueueConfiguration("fast-.*").processorTimeout(100).retryInitialDelay(10),
+                        new QueueConfiguration("fast-.*|dedicated-.*").processorAddress("dedicated-processor")))
+                .build());
+
+        context.assertEquals("default-processor", settings.getProcessorAddress("fast-queue"));
+        context.assertEquals(100, settings.getProcessorTimeout("fast-queue"));
+        context.assertEquals(20L, settings.getRetryPolicy("fast-queue").getDelayMs(2));
+
+        context.assertEquals("dedicated-processor", settings.getProcessorAddress("dedicated-queue"));
+        context.assertEquals(5000, settings.getProcessorTimeout("dedicated-queue"));
+        context.assertEquals(2000L, settings.getRetryPolicy("dedicated-queue").getDelayMs(2));
+
+        context.assertEquals("default-processor", settings.getProcessorAddress("other-queue"));
+        context.assertEquals(5000, settings.getProcessorTimeout("other-queue"));
+    }
+}
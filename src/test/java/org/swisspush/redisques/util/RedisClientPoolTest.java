@@ -0,0 +1,56 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.redis.RedisClient;
+import io.vertx.redis.RedisOptions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link RedisClientPool} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class RedisClientPoolTest {
+
+    @Test
+    public void testRoundRobin(TestContext context){
+        Vertx vertx = Vertx.vertx();
+        RedisClientPool pool = new RedisClientPool(vertx, new RedisOptions(), 3);
+        context.assertEquals(3, pool.size());
+        RedisClient first = pool.get();
+        RedisClient second = pool.get();
+        RedisClient third = pool.get();
+        context.assertNotEquals(first, second);
+        context.assertNotEquals(second, third);
+        context.assertNotEquals(first, third);
+        context.assertEquals(first, pool.get());
+        context.assertEquals(second, pool.get());
+        pool.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testSingleConnection(TestContext context){
+        Vertx vertx = Vertx.vertx();
+        RedisClientPool pool = new RedisClientPool(vertx, new RedisOptions(), 1);
+        RedisClient client = pool.get();
+        context.assertEquals(client, pool.get());
+        pool.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testPinnedByKey(TestContext context){
+        Vertx vertx = Vertx.vertx();
+        RedisClientPool pool = new RedisClientPool(vertx, new RedisOptions(), 4);
+        RedisClient client = pool.get("queue1");
+        for (int i = 0; i < 10; i++) {
+            pool.get();
+            context.assertEquals(client, pool.get("queue1"));
+        }
+        pool.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+}
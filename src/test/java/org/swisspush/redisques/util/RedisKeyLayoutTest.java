@@ -0,0 +1,76 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link RedisKeyLayout} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class RedisKeyLayoutTest {
+
+    @Test
+    public void testSingleSlotLayout(TestContext context){
+        RedisKeyLayout keys = new RedisKeyLayout("redisques:", 0);
+        context.assertFalse(keys.isSharded());
+        context.assertEquals(1, keys.getShards());
+        context.assertEquals(0, keys.shardOf("queue1"));
+        context.assertEquals("redisques:queues", keys.queuesKey(0));
+        context.assertEquals("redisques:queues:queue1", keys.queueKey("queue1"));
+        context.assertEquals("redisques:lanes:0:queue1", keys.laneKey("queue1", 0));
+        context.assertEquals("redisques:consumers:queue1", keys.consumerKey("queue1"));
+        context.assertEquals("redisques:consumers:*", keys.consumersPattern());
+        context.assertEquals("redisques:locks", keys.locksKey("queue1"));
+        context.assertEquals("redisques:attempts", keys.attemptsKey("queue1"));
+        context.assertEquals("redisques:dlqs", keys.deadLetterQueuesKey(0));
+        context.assertEquals("redisques:dlq:queue1", keys.deadLetterQueueKey("queue1"));
+        context.assertEquals("redisques:delayed", keys.delayedKey(0));
+        context.assertEquals("redisques:delayed:lease", keys.delayedLeaseKey(0));
+        context.assertEquals("redisques:processing:uid1", keys.processingKey(0, "uid1"));
+        context.assertEquals("redisques:processing:consumers", keys.processingConsumersKey(0));
+        context.assertEquals("redisques:processing:alive:", keys.alivePrefix(0));
+        context.assertEquals("redisques:inflight", keys.inflightKey("queue1"));
+    }
+
+    @Test
+    public void testShardedLayout(TestContext context){
+        RedisKeyLayout keys = new RedisKeyLayout("myprefix:", 8);
+        context.assertTrue(keys.isSharded());
+        context.assertEquals(8, keys.getShards());
+        int shard = keys.shardOf("queue1");
+        context.assertTrue(shard >= 0 && shard < 8);
+        context.assertEquals(shard, new RedisKeyLayout("myprefix:", 8).shardOf("queue1"));
+        String tag = "{" + shard + "}";
+        context.assertEquals("myprefix:queues:" + tag, keys.queuesKey(shard));
+        context.assertEquals("myprefix:queues:" + tag + ":queue1", keys.queueKey("queue1"));
+        context.assertEquals("myprefix:lanes:" + tag + ":1:queue1", keys.laneKey("queue1", 1));
+        context.assertEquals("myprefix:consumers:" + tag + ":queue1", keys.consumerKey("queue1"));
+        context.assertEquals("myprefix:locks:" + tag, keys.locksKey("queue1"));
+        context.assertEquals("myprefix:attempts:" + tag, keys.attemptsKey("queue1"));
+        context.assertEquals("myprefix:dlq:" + tag + ":queue1", keys.deadLetterQueueKey("queue1"));
+        context.assertEquals("myprefix:processing:" + tag + ":uid1", keys.processingKey(shard, "uid1"));
+        context.assertEquals("myprefix:inflight:" + tag, keys.inflightKey("queue1"));
+        context.assertTrue(keys.consumerKey("queue1").startsWith(keys.consumersPattern().replace("*", "")));
+    }
+
+    @Test
+    public void testLaneKeysDoNotCollideWithQueueKeys(TestContext context){
+        RedisKeyLayout keys = new RedisKeyLayout("redisques:", 0);
+        context.assertNotEquals(keys.queueKey("foo:p0"), keys.laneKey("foo", 0));
+        context.assertFalse(keys.laneKey("foo", 0).startsWith(keys.queuesPrefix(0)));
+    }
+
+    @Test
+    public void testQueuesSpreadOverShards(TestContext context){
+        RedisKeyLayout keys = new RedisKeyLayout("redisques:", 4);
+        int[] counts = new int[4];
+        for (int i = 0; i < 1000; i++) {
+            counts[keys.shardOf("queue" + i)]++;
+        }
+        for (int count : counts) {
+            context.assertTrue(count > 100, "unbalanced shards");
+        }
+    }
+}
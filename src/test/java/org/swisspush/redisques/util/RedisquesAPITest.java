@@ -51,9 +51,17 @@ public class RedisquesAPITest {
         context.assertEquals(QueueOperation.replaceQueueItem, QueueOperation.fromString("replaceQueueItem"));
         context.assertEquals(QueueOperation.replaceQueueItem, QueueOperation.fromString("REPLACEQUEUEITEM"));
 
+        context.assertEquals(QueueOperation.bulkEnqueue, QueueOperation.fromString("bulkEnqueue"));
         context.assertEquals(QueueOperation.getQueues, QueueOperation.fromString("getQueues"));
         context.assertEquals(QueueOperation.getQueuesCount, QueueOperation.fromString("getQueuesCount"));
         context.assertEquals(QueueOperation.getQueueItemsCount, QueueOperation.fromString("getQueueItemsCount"));
+        context.assertEquals(QueueOperation.getQueuesStatistics, QueueOperation.fromString("getQueuesStatistics"));
+        context.assertEquals(QueueOperation.getMetrics, QueueOperation.fromString("getMetrics"));
+        context.assertEquals(QueueOperation.enqueueDelayed, QueueOperation.fromString("enqueueDelayed"));
+        context.assertEquals(QueueOperation.getDeadLetterQueues, QueueOperation.fromString("getDeadLetterQueues"));
+        context.assertEquals(QueueOperation.getDeadLetterQueueItems, QueueOperation.fromString("getDeadLetterQueueItems"));
+        context.assertEquals(QueueOperation.replayDeadLetterQueue, QueueOperation.fromString("replayDeadLetterQueue"));
+        context.assertEquals(QueueOperation.deleteDeadLetterQueue, QueueOperation.fromString("deleteDeadLetterQueue"));
     }
 
     @Test
@@ -71,6 +79,7 @@ public class RedisquesAPITest {
         context.assertEquals("replaceItem", QueueOperation.replaceQueueItem.getLegacyName());
 
         context.assertFalse(QueueOperation.enqueue.hasLegacyName());
+        context.assertFalse(QueueOperation.bulkEnqueue.hasLegacyName());
         context.assertFalse(QueueOperation.check.hasLegacyName());
         context.assertFalse(QueueOperation.reset.hasLegacyName());
         context.assertFalse(QueueOperation.stop.hasLegacyName());
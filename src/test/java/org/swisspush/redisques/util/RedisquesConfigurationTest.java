@@ -1,5 +1,6 @@
 package org.swisspush.redisques.util;
 
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -28,6 +29,24 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(config.getRedisEncoding(), "UTF-8");
         testContext.assertEquals(config.getCheckInterval(), 60);
         testContext.assertEquals(config.getProcessorTimeout(), 240000);
+        testContext.assertEquals(config.getPrefetchCount(), 1);
+        testContext.assertNull(config.getPrefetchQueuesPattern());
+        testContext.assertEquals(config.getConsumerCacheSize(), 10000);
+        testContext.assertEquals(config.getConsumerCacheTtl(), 5);
+        testContext.assertEquals(config.getCheckQueuesPageSize(), 500);
+        testContext.assertEquals(config.getTimestampFlushInterval(), 0);
+        testContext.assertEquals(config.getRetryInitialDelay(), 0);
+        testContext.assertEquals(config.getRetryMultiplier(), 1.0);
+        testContext.assertEquals(config.getRetryMaxDelay(), 300000);
+        testContext.assertEquals(config.getRetryJitter(), 0.0);
+        testContext.assertEquals(config.getMaxAttempts(), 0);
+        testContext.assertEquals(config.getDelayedPollInterval(), 5000);
+        testContext.assertEquals(config.getPriorityLevels(), 0);
+        testContext.assertEquals(config.isReliableMode(), false);
+        testContext.assertEquals(config.getRedisPoolSize(), 1);
+        testContext.assertEquals(config.getRedisHousekeepingPoolSize(), 1);
+        testContext.assertEquals(config.getRedisAdminPoolSize(), 1);
+        testContext.assertEquals(config.getClusterShards(), 0);
     }
 
     @Test
@@ -68,6 +87,24 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(json.getString(PROP_REDIS_ENCODING), "UTF-8");
         testContext.assertEquals(json.getInteger(PROP_CHECK_INTERVAL), 60);
         testContext.assertEquals(json.getInteger(PROP_PROCESSOR_TIMEOUT), 240000);
+        testContext.assertEquals(json.getInteger(PROP_PREFETCH_COUNT), 1);
+        testContext.assertNull(json.getString(PROP_PREFETCH_QUEUES_PATTERN));
+        testContext.assertEquals(json.getInteger(PROP_CONSUMER_CACHE_SIZE), 10000);
+        testContext.assertEquals(json.getInteger(PROP_CONSUMER_CACHE_TTL), 5);
+        testContext.assertEquals(json.getInteger(PROP_CHECK_QUEUES_PAGE_SIZE), 500);
+        testContext.assertEquals(json.getInteger(PROP_TIMESTAMP_FLUSH_INTERVAL), 0);
+        testContext.assertEquals(json.getInteger(PROP_RETRY_INITIAL_DELAY), 0);
+        testContext.assertEquals(json.getDouble(PROP_RETRY_MULTIPLIER), 1.0);
+        testContext.assertEquals(json.getInteger(PROP_RETRY_MAX_DELAY), 300000);
+        testContext.assertEquals(json.getDouble(PROP_RETRY_JITTER), 0.0);
+        testContext.assertEquals(json.getInteger(PROP_MAX_ATTEMPTS), 0);
+        testContext.assertEquals(json.getInteger(PROP_DELAYED_POLL_INTERVAL), 5000);
+        testContext.assertEquals(json.getInteger(PROP_PRIORITY_LEVELS), 0);
+        testContext.assertEquals(json.getBoolean(PROP_RELIABLE_MODE), false);
+        testContext.assertEquals(json.getInteger(PROP_REDIS_POOL_SIZE), 1);
+        testContext.assertEquals(json.getInteger(PROP_REDIS_HOUSEKEEPING_POOL_SIZE), 1);
+        testContext.assertEquals(json.getInteger(PROP_REDIS_ADMIN_POOL_SIZE), 1);
+        testContext.assertEquals(json.getInteger(PROP_CLUSTER_SHARDS), 0);
     }
 
     @Test
@@ -111,6 +148,24 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(config.getRedisEncoding(), "UTF-8");
         testContext.assertEquals(config.getCheckInterval(), 60);
         testContext.assertEquals(config.getProcessorTimeout(), 240000);
+        testContext.assertEquals(config.getPrefetchCount(), 1);
+        testContext.assertNull(config.getPrefetchQueuesPattern());
+        testContext.assertEquals(config.getConsumerCacheSize(), 10000);
+        testContext.assertEquals(config.getConsumerCacheTtl(), 5);
+        testContext.assertEquals(config.getCheckQueuesPageSize(), 500);
+        testContext.assertEquals(config.getTimestampFlushInterval(), 0);
+        testContext.assertEquals(config.getRetryInitialDelay(), 0);
+        testContext.assertEquals(config.getRetryMultiplier(), 1.0);
+        testContext.assertEquals(config.getRetryMaxDelay(), 300000);
+        testContext.assertEquals(config.getRetryJitter(), 0.0);
+        testContext.assertEquals(config.getMaxAttempts(), 0);
+        testContext.assertEquals(config.getDelayedPollInterval(), 5000);
+        testContext.assertEquals(config.getPriorityLevels(), 0);
+        testContext.assertEquals(config.isReliableMode(), false);
+        testContext.assertEquals(config.getRedisPoolSize(), 1);
+        testContext.assertEquals(config.getRedisHousekeepingPoolSize(), 1);
+        testContext.assertEquals(config.getRedisAdminPoolSize(), 1);
+        testContext.assertEquals(config.getClusterShards(), 0);
     }
 
     @Test
@@ -126,6 +181,24 @@ public class RedisquesConfigurationTest {
         json.put(PROP_REDIS_ENCODING, "new_encoding");
         json.put(PROP_CHECK_INTERVAL, 5);
         json.put(PROP_PROCESSOR_TIMEOUT, 30);
+        json.put(PROP_PREFETCH_COUNT, 10);
+        json.put(PROP_PREFETCH_QUEUES_PATTERN, "bulk-.*");
+        json.put(PROP_CONSUMER_CACHE_SIZE, 500);
+        json.put(PROP_CONSUMER_CACHE_TTL, 0);
+        json.put(PROP_CHECK_QUEUES_PAGE_SIZE, 50);
+        json.put(PROP_TIMESTAMP_FLUSH_INTERVAL, 250);
+        json.put(PROP_RETRY_INITIAL_DELAY, 500);
+        json.put(PROP_RETRY_MULTIPLIER, 2.0);
+        json.put(PROP_RETRY_MAX_DELAY, 60000);
+        json.put(PROP_RETRY_JITTER, 0.5);
+        json.put(PROP_MAX_ATTEMPTS, 5);
+        json.put(PROP_DELAYED_POLL_INTERVAL, 1000);
+        json.put(PROP_PRIORITY_LEVELS, 3);
+        json.put(PROP_RELIABLE_MODE, true);
+        json.put(PROP_REDIS_POOL_SIZE, 3);
+        json.put(PROP_REDIS_HOUSEKEEPING_POOL_SIZE, 2);
+        json.put(PROP_REDIS_ADMIN_POOL_SIZE, 4);
+        json.put(PROP_CLUSTER_SHARDS, 16);
 
         RedisquesConfiguration config = fromJsonObject(json);
         testContext.assertEquals(config.getAddress(), "new_address");
@@ -137,6 +210,24 @@ public class RedisquesConfigurationTest {
         testContext.assertEquals(config.getRedisEncoding(), "new_encoding");
         testContext.assertEquals(config.getCheckInterval(), 5);
         testContext.assertEquals(config.getProcessorTimeout(), 30);
+        testContext.assertEquals(config.getPrefetchCount(), 10);
+        testContext.assertEquals(config.getPrefetchQueuesPattern(), "bulk-.*");
+        testContext.assertEquals(config.getConsumerCacheSize(), 500);
+        testContext.assertEquals(config.getConsumerCacheTtl(), 0);
+        testContext.assertEquals(config.getCheckQueuesPageSize(), 50);
+        testContext.assertEquals(config.getTimestampFlushInterval(), 250);
+        testContext.assertEquals(config.getRetryInitialDelay(), 500);
+        testContext.assertEquals(config.getRetryMultiplier(), 2.0);
+        testContext.assertEquals(config.getRetryMaxDelay(), 60000);
+        testContext.assertEquals(config.getRetryJitter(), 0.5);
+        testContext.assertEquals(config.getMaxAttempts(), 5);
+        testContext.assertEquals(config.getDelayedPollInterval(), 1000);
+        testContext.assertEquals(config.getPriorityLevels(), 3);
+        testContext.assertEquals(config.isReliableMode(), true);
+        testContext.assertEquals(config.getRedisPoolSize(), 3);
+        testContext.assertEquals(config.getRedisHousekeepingPoolSize(), 2);
+        testContext.assertEquals(config.getRedisAdminPoolSize(), 4);
+        testContext.assertEquals(config.getClusterShards(), 16);
     }
 
     @Test
@@ -184,4 +275,29 @@ public class RedisquesConfigurationTest {
     private int add500ms(int interval){
         return interval + 500;
     }
+
+    @Test
+    public void testQueueConfigurationsFromJsonObject(TestContext testContext){
+        JsonObject json = new RedisquesConfiguration().asJsonObject();
+        testContext.assertEquals(json.getJsonArray(PROP_QUEUE_CONFIGURATIONS).size(), 0);
+
+        json.put(PROP_QUEUE_CONFIGURATIONS, new JsonArray()
+                .add(new JsonObject().put("pattern", "fast-.*").put(PROP_PROCESSOR_ADDRESS, "fast-processor").put(PROP_PROCESSOR_TIMEOUT, 500))
+                .add(new JsonObject().put("pattern", "[invalid"))
+                .add(new JsonObject().put("pattern", "slow-.*").put(PROP_RETRY_MULTIPLIER, 2.0)));
+        RedisquesConfiguration config = fromJsonObject(json);
+
+        testContext.assertEquals(config.getQueueConfigurations().size(), 2);
+        QueueConfiguration fast = config.getQueueConfigurations().get(0);
+        testContext.assertEquals(fast.getPattern(), "fast-.*");
+        testContext.assertEquals(fast.getProcessorAddress(), "fast-processor");
+        testContext.assertEquals(fast.getProcessorTimeout(), 500);
+        testContext.assertNull(fast.getRetryMultiplier());
+        QueueConfiguration slow = config.getQueueConfigurations().get(1);
+        testContext.assertEquals(slow.getRetryMultiplier(), 2.0);
+        testContext.assertNull(slow.getProcessorAddress());
+
+        testContext.assertEquals(config.asJsonObject().getJsonArray(PROP_QUEUE_CONFIGURATIONS),
+                new JsonArray().add(fast.asJsonObject()).add(slow.asJsonObject()));
+    }
 }
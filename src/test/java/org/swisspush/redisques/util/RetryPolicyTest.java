@@ -0,0 +1,43 @@
+package org.swisspush.redisques.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for {@link RetryPolicy} class.
+ */
+@RunWith(VertxUnitRunner.class)
+public class RetryPolicyTest {
+
+    @Test
+    public void testConstantDelay(TestContext context) {
+        RetryPolicy policy = new RetryPolicy(10000, 1.0, 300000, 0.0);
+        context.assertEquals(10000L, policy.getDelayMs(1));
+        context.assertEquals(10000L, policy.getDelayMs(50));
+    }
+
+    @Test
+    public void testExponentialDelayWithCap(TestContext context) {
+        RetryPolicy policy = new RetryPolicy(1000, 2.0, 10000, 0.0);
+        context.assertEquals(1000L, policy.getDelayMs(1));
+        context.assertEquals(2000L, policy.getDelayMs(2));
+        context.assertEquals(4000L, policy.getDelayMs(3));
+        context.assertEquals(8000L, policy.getDelayMs(4));
+        context.assertEquals(10000L, policy.getDelayMs(5));
+        context.assertEquals(10000L, policy.getDelayMs(1000));
+    }
+
+    @Test
+    public void testJitter(TestContext context) {
+        RetryPolicy policy = new RetryPolicy(1000, 2.0, 10000, 0.5);
+        context.assertEquals(4000L, policy.getDelayMs(3, 0.0));
+        context.assertEquals(3000L, policy.getDelayMs(3, 0.5));
+        context.assertEquals(2000L, policy.getDelayMs(3, 1.0));
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.getDelayMs(3);
+            context.assertTrue(delay >= 2000L && delay <= 4000L, "delay " + delay + " out of range");
+        }
+    }
+}